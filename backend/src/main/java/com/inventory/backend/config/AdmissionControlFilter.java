@@ -0,0 +1,172 @@
+package com.inventory.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admission control, placed right after JwtAuthenticationFilter so the JWT subject is known.
+ * Every /api request is classified (checkout, heavy report, plain read, write, auth) and has
+ * to take a token from the bucket of its (subject, class) pair; heavy classes also need one
+ * of a fixed number of concurrency slots. A runaway client gets 429 + Retry-After on its own
+ * buckets while checkouts from other tills keep their budget and their DB connections.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass { AUTH, CHECKOUT, HEAVY, READ, WRITE }
+
+    @Autowired
+    private AdmissionControlProperties properties;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<EndpointClass, Semaphore> slots = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter[]> outcomes = new EnumMap<>(EndpointClass.class);
+
+    private static final int ADMITTED = 0, RATE_LIMITED = 1, CONCURRENCY_LIMITED = 2;
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry, AdmissionControlProperties properties) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            outcomes.put(endpointClass, new Counter[] {
+                counter(registry, endpointClass, "admitted"),
+                counter(registry, endpointClass, "rate_limited"),
+                counter(registry, endpointClass, "concurrency_limited")
+            });
+
+            AdmissionControlProperties.Limit limit = properties.getLimits().get(endpointClass);
+            // Fail at startup rather than on the first request that builds a bucket
+            if (limit != null && !(limit.getRatePerSecond() > 0)) {
+                throw new IllegalArgumentException("inventory.admission.limits." + endpointClass
+                        + ".rate-per-second must be greater than 0");
+            }
+            if (limit != null && limit.getMaxConcurrent() > 0) {
+                Semaphore semaphore = new Semaphore(limit.getMaxConcurrent());
+                slots.put(endpointClass, semaphore);
+                Gauge.builder("inventory.admission.in_flight", semaphore,
+                              s -> limit.getMaxConcurrent() - s.availablePermits())
+                        .tag("class", endpointClass.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+        Gauge.builder("inventory.admission.buckets", buckets, Map::size).register(registry);
+    }
+
+    private Counter counter(MeterRegistry registry, EndpointClass endpointClass, String outcome) {
+        return Counter.builder("inventory.admission.requests")
+                .tag("class", endpointClass.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || "OPTIONS".equals(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        EndpointClass endpointClass = classify(request.getMethod(), request.getRequestURI());
+        AdmissionControlProperties.Limit limit = properties.getLimits().get(endpointClass);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Counter[] counters = outcomes.get(endpointClass);
+
+        // 1. Rate: one bucket per (subject, class)
+        String key = subject(request) + "|" + endpointClass;
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst()));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            counters[RATE_LIMITED].increment();
+            reject(response, waitNanos, "Too many " + endpointClass.name().toLowerCase() + " requests, slow down.");
+            return;
+        }
+
+        // 2. Concurrency: heavy classes share a fixed number of slots
+        Semaphore semaphore = slots.get(endpointClass);
+        if (semaphore == null) {
+            counters[ADMITTED].increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!semaphore.tryAcquire()) {
+            counters[CONCURRENCY_LIMITED].increment();
+            reject(response, 1_000_000_000L, "Server is busy with other reports, try again shortly.");
+            return;
+        }
+        try {
+            counters[ADMITTED].increment();
+            filterChain.doFilter(request, response);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    static EndpointClass classify(String method, String path) {
+        if (path.startsWith("/api/auth/")) return EndpointClass.AUTH;
+
+        boolean get = "GET".equals(method);
+        if (!get && (path.equals("/api/sales") || path.equals("/api/sales/sync"))) return EndpointClass.CHECKOUT;
+
+        // Full-table lists (the whole catalog included) and report style endpoints
+        if (get && (path.equals("/api/inventory-transactions") || path.equals("/api/sales") || path.equals("/api/purchases")
+                || path.equals("/api/products"))) {
+            return EndpointClass.HEAVY;
+        }
+        // Submitting a report job; polling and downloading it stay plain reads
+        if (!get && path.equals("/api/reports")) return EndpointClass.HEAVY;
+        if (path.startsWith("/api/valuation") || path.startsWith("/api/reconciliation")
+                || path.startsWith("/api/stock-snapshots") || path.endsWith("/archive")
+                || path.equals("/api/products/bulk-pricing")) {
+            return EndpointClass.HEAVY;
+        }
+        return get ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+    private String subject(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        // Tills that don't send a token are told apart by address
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    // Full buckets hold no information; dropping them keeps the map at the number of active clients
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+}
@@ -0,0 +1,44 @@
+package com.inventory.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request budgets per endpoint class, bound from inventory.admission.* in application.properties.
+ * Each (user, class) pair gets its own bucket; maxConcurrent caps the class as a whole.
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled = true;
+
+    private Map<AdmissionControlFilter.EndpointClass, Limit> limits = new LinkedHashMap<>(Map.of(
+        AdmissionControlFilter.EndpointClass.AUTH, new Limit(0.2, 5, 0),
+        AdmissionControlFilter.EndpointClass.CHECKOUT, new Limit(10, 30, 0),
+        AdmissionControlFilter.EndpointClass.READ, new Limit(20, 60, 0),
+        AdmissionControlFilter.EndpointClass.WRITE, new Limit(10, 30, 0),
+        AdmissionControlFilter.EndpointClass.HEAVY, new Limit(0.5, 5, 4)
+    ));
+
+    @Data
+    public static class Limit {
+        // Sustained requests per second and how many may arrive at once
+        private double ratePerSecond;
+        private int burst;
+        // Requests of this class running at the same time, across all users (0 = no cap)
+        private int maxConcurrent;
+
+        public Limit() {
+        }
+
+        public Limit(double ratePerSecond, int burst, int maxConcurrent) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.inventory.backend.config;
+
+import com.inventory.backend.controller.AuthController;
+import com.inventory.backend.controller.ProductController;
+import com.inventory.backend.controller.SaleController;
+import com.inventory.backend.service.ProductService;
+import com.inventory.backend.service.SaleReferenceAllocator;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Set;
+
+/**
+ * FAST-START PROFILE (application-fast-start.properties)
+ * Everything is lazy there, except:
+ * 1. Beans with @Scheduled methods - a lazy bean's jobs are only registered once something
+ *    asks for the bean, so the fold / snapshot / cleanup jobs would silently never run.
+ * 2. The login and checkout path, so the first sale after a scale-out doesn't pay for
+ *    wiring it up.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    private static final Set<Class<?>> CHECKOUT_PATH = Set.of(
+            AuthController.class, JwtUtils.class,
+            SaleController.class, ProductController.class,
+            ProductService.class, SaleReferenceAllocator.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerCheckoutAndScheduledBeans() {
+        return (beanName, beanDefinition, beanType) ->
+                CHECKOUT_PATH.contains(beanType) || hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+    }
+}
@@ -30,11 +30,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             if (jwtUtils.validateToken(token)) {
                 String username = jwtUtils.getUsernameFromToken(token);
-                // In a real app, you'd extract the role from the token claims too
-                // For now, let's assume we fetch the role here or passed it in claims
-                
+                // The role claim becomes the only authority (SecurityConfig keeps /actuator/metrics to ADMIN)
+                String role = jwtUtils.getRoleFromToken(token);
+
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        username, null, Collections.singletonList(new SimpleGrantedAuthority("ADMIN"))); // Hardcoded for test
+                        username, null, role == null ? Collections.emptyList()
+                                : Collections.singletonList(new SimpleGrantedAuthority(role)));
                 
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
@@ -0,0 +1,172 @@
+package com.inventory.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SECOND-LEVEL CACHE STORAGE
+ * In-process Hibernate regions: one LRU map per region, capped at maxEntries, with entries
+ * expiring after ttlMillis so rows edited outside the application are picked up eventually.
+ * The update-timestamps region is never capped or expired - losing a timestamp would make
+ * stale query results look current.
+ * Per region it publishes inventory.cache.gets{region, result=hit|miss}, inventory.cache.size,
+ * inventory.cache.evictions and inventory.cache.hit.ratio.
+ */
+public class LocalCacheRegionFactory extends RegionFactoryTemplate {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Storage> regions = new ConcurrentHashMap<>();
+
+    public LocalCacheRegionFactory(int maxEntries, long ttlMillis, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return storage(regionConfig.getRegionName(), maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return storage(regionName, maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return storage(regionName, 0, 0);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(Storage::release);
+        regions.clear();
+    }
+
+    private Storage storage(String regionName, int maxEntries, long ttlMillis) {
+        return regions.computeIfAbsent(regionName, name -> {
+            Storage storage = new Storage(maxEntries, ttlMillis);
+            FunctionCounter.builder("inventory.cache.gets", storage, s -> s.hits.sum())
+                    .tags("region", name, "result", "hit").register(meterRegistry);
+            FunctionCounter.builder("inventory.cache.gets", storage, s -> s.misses.sum())
+                    .tags("region", name, "result", "miss").register(meterRegistry);
+            FunctionCounter.builder("inventory.cache.evictions", storage, s -> s.evictions.sum())
+                    .tags("region", name).register(meterRegistry);
+            Gauge.builder("inventory.cache.size", storage, Storage::size)
+                    .tags("region", name).register(meterRegistry);
+            Gauge.builder("inventory.cache.hit.ratio", storage, Storage::hitRatio)
+                    .tags("region", name).register(meterRegistry);
+            return storage;
+        });
+    }
+
+    /** One region. maxEntries = 0 means unbounded, ttlMillis = 0 means no expiry. */
+    static class Storage implements DomainDataStorageAccess {
+
+        private record Entry(Object value, long expiresAt) {
+        }
+
+        private final long ttlMillis;
+        private final Map<Object, Entry> entries;
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        Storage(int maxEntries, long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+            // Access-ordered, so the eldest entry is the least recently used one
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    if (maxEntries > 0 && size() > maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.expiresAt() != 0 && entry.expiresAt() < System.currentTimeMillis()) {
+                    entries.remove(key);
+                    entry = null;
+                }
+                (entry == null ? misses : hits).increment();
+                return entry == null ? null : entry.value();
+            }
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+            synchronized (entries) {
+                entries.put(key, new Entry(value, expiresAt));
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            synchronized (entries) {
+                return entries.containsKey(key);
+            }
+        }
+
+        @Override
+        public void evictData() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        @Override
+        public void evictData(Object key) {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+        }
+
+        @Override
+        public void release() {
+            evictData();
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        double hitRatio() {
+            long hit = hits.sum();
+            long total = hit + misses.sum();
+            return total == 0 ? 0 : (double) hit / total;
+        }
+    }
+}
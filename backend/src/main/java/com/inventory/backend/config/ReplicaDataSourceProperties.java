@@ -0,0 +1,30 @@
+package com.inventory.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica pools, bound from inventory.datasource.* in application.properties.
+ * The primary keeps using the normal spring.datasource.* settings.
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.datasource")
+public class ReplicaDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // After a user commits a write, their reads stay on the primary for this long
+    private long readYourWritesMs = 2000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,150 @@
+package com.inventory.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends @Transactional(readOnly = true) work to the replicas (round robin) and
+ * everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy
+ * so the connection is picked after the transaction's read-only flag is set.
+ *
+ * Read-your-writes: when a write transaction commits, the current user's reads
+ * are pinned to the primary for a short window so a till never reads a replica
+ * that hasn't caught up with its own checkout yet.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final DataSource primary;
+    private final List<String> replicaKeys;
+    private final long readYourWritesMs;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteBySubject = new ConcurrentHashMap<>();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long readYourWritesMs) {
+        this.primary = primary;
+        this.readYourWritesMs = readYourWritesMs;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicaKeys = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty()) {
+            return PRIMARY;
+        }
+        Long lastWrite = lastWriteBySubject.get(currentSubject());
+        if (lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesMs) {
+            pinnedReads.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    // A replica that can't hand out a connection is skipped in favour of the primary
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) throw e;
+            fallbacks.incrementAndGet();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            if (target == primary) throw e;
+            fallbacks.incrementAndGet();
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * Remembers the commit time of write transactions, once per transaction.
+     */
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        String subject = currentSubject();
+        TransactionSynchronizationManager.bindResource(this, subject);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+                if (status == STATUS_COMMITTED) {
+                    recordWrite(subject);
+                }
+            }
+        });
+    }
+
+    void recordWrite(String subject) {
+        long now = System.currentTimeMillis();
+        // Drop expired entries so the map stays the size of the recently active users
+        lastWriteBySubject.values().removeIf(at -> now - at >= readYourWritesMs);
+        lastWriteBySubject.put(subject, now);
+    }
+
+    private String currentSubject() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getName() != null ? auth.getName() : ANONYMOUS;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getPinnedReads() {
+        return pinnedReads.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.inventory.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * SECOND-LEVEL CACHE
+ * Only entities marked @Cacheable (Supplier, User) and queries with the cacheable hint
+ * (active suppliers) use it. The login lookup by username and the product header checkout
+ * prices from always go to the database. Product entities themselves are not cached: they
+ * carry the LONGTEXT image.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Value("${inventory.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${inventory.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(MeterRegistry meterRegistry) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                        new LocalCacheRegionFactory(maxEntries, ttlSeconds * 1000, meterRegistry));
+            }
+        };
+    }
+}
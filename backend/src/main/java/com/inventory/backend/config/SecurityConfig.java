@@ -1,8 +1,11 @@
 package com.inventory.backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -15,26 +18,44 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(AdmissionControlProperties.class)
 public class SecurityConfig {
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter; // Inject the filter
 
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    // Only run admission control inside the security chain (after the JWT is read), not a second time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlRegistration() {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(admissionControlFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
+            // CORS inside the chain, ahead of admission control, so a 429 still carries the headers the browser needs to read it.
+            // With no CorsConfigurationSource bean this uses the MVC mappings (WebConfig and @CrossOrigin), so the rules stay in one place.
+            .cors(Customizer.withDefaults())
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll() // Login/Register are public
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasAuthority("ADMIN") // Load and per-class counters
                 .anyRequest().permitAll() // Allow requests through to let @PreAuthorize handle them
             )
             // 1. ADD THE FILTER HERE
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // 2. Admission control right behind it, keyed by the JWT subject
+            .addFilterAfter(admissionControlFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,53 @@
+package com.inventory.backend.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket (GCRA form).
+ * The whole state is one "theoretical arrival time" in an AtomicLong: each admitted
+ * request pushes it forward by one emission interval, and a request is admitted while
+ * that time is no more than burst intervals ahead of now. One CAS per request, no locks.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param ratePerSecond sustained rate, must be greater than 0 (a zero rate would mean an
+     *                      endless emission interval; leave the class without a limit instead)
+     * @param burst         requests admitted at once; values below 1 count as 1
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (!(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be greater than 0, was " + ratePerSecond);
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * @return 0 when admitted, otherwise how many nanoseconds until a token is free
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = arrival.get();
+            long base = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+            long next = base + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A bucket that has refilled completely carries no state and can be dropped
+    public boolean isIdle(long nowNanos) {
+        long current = arrival.get();
+        return current == Long.MIN_VALUE || current - nowNanos <= 0;
+    }
+}
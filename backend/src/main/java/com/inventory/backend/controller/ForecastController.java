@@ -0,0 +1,33 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.dto.ReorderSuggestion;
+import com.inventory.backend.model.ProductDemand;
+import com.inventory.backend.service.DemandForecastService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/forecast")
+@CrossOrigin(origins = "*")
+public class ForecastController {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @GetMapping("/reorder-suggestions")
+    public List<ReorderSuggestion> getReorderSuggestions() {
+        return demandForecastService.getReorderSuggestions();
+    }
+
+    @GetMapping("/{productId}")
+    @Transactional(readOnly = true)
+    public ResponseEntity<ProductDemand> getDemand(@PathVariable Long productId) {
+        return demandForecastService.getDemand(productId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,11 +1,23 @@
 package com.inventory.backend.controller;
 
+import com.inventory.backend.config.JwtUtils;
+import com.inventory.backend.dto.LedgerEntryView;
 import com.inventory.backend.model.InventoryTransaction;
 import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.service.LedgerArchiveService;
+import com.inventory.backend.web.ColumnarJson;
+import com.inventory.backend.web.ColumnarTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inventory-transactions") 
@@ -15,15 +27,70 @@ public class InventoryTransactionController {
     @Autowired
     private InventoryTransactionRepository transactionRepository;
 
+    @Autowired
+    private LedgerArchiveService archiveService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // Without a range: the live table. With from/to: live rows plus archived rows in [from, to)
     @GetMapping
-    public List<InventoryTransaction> getAllTransactions() {
-        return transactionRepository.findAllSorted();
+    @Transactional(readOnly = true)
+    public List<LedgerEntryView> getAllTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (from == null && to == null) {
+            return transactionRepository.findAllSorted();
+        }
+        return archiveService.findTransactions(from, to);
+    }
+
+    // Live ledger, columnar encoding (Accept: application/vnd.inventory.columnar+json)
+    @GetMapping(produces = ColumnarJson.MEDIA_TYPE)
+    @Transactional(readOnly = true)
+    public void getAllTransactionsColumnar(HttpServletResponse response) throws IOException {
+        ColumnarTable transactions = new ColumnarTable("id", "productId", "productName", "userId", "username",
+                "description", "quantity", "reference", "totalAmount", "createdAt")
+                .dictionary("productName", "username", "description")
+                .from(transactionRepository::streamLedgerColumns);
+        ColumnarJson.write(response, objectMapper, Map.of("transactions", transactions));
     }
 
     @PostMapping
-    public ResponseEntity<InventoryTransaction> createTransaction(@RequestBody InventoryTransaction transaction) {
+    public ResponseEntity<LedgerEntryView> createTransaction(@RequestBody InventoryTransaction transaction) {
+        transaction.setCreatedAt(null); // Manual rows are always stamped with the server time
         InventoryTransaction saved = transactionRepository.save(transaction);
-        // Refresh to trigger the formula lookup in sale_items
-        return ResponseEntity.ok(transactionRepository.findById(saved.getId()).orElse(saved));
+        // Re-read to trigger the formula lookup in sale_items
+        return transactionRepository.findViewById(saved.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Manual trigger for the nightly archive job (admins only)
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveOldTransactions(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(403).body("Access Denied.");
+        }
+        try {
+            return ResponseEntity.ok(archiveService.archive());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    private boolean isAdmin(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) return false;
+        try {
+            String token = authHeader.substring(7);
+            String role = jwtUtils.getRoleFromToken(token);
+            return "ADMIN".equals(role);
+        } catch (Exception e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.dto.LocationBalance;
+import com.inventory.backend.model.Location;
+import com.inventory.backend.model.User;
+import com.inventory.backend.repository.LocationRepository;
+import com.inventory.backend.repository.UserRepository;
+import com.inventory.backend.service.LocationStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/locations")
+@CrossOrigin(origins = "*")
+public class LocationController {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @GetMapping
+    @Transactional(readOnly = true)
+    public List<Location> getAllLocations() {
+        return locationRepository.findAllByActiveTrue();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createLocation(@RequestBody Location location) {
+        if (location.getCode() == null || location.getCode().isBlank()) {
+            return ResponseEntity.status(400).body("Location code is required.");
+        }
+        if (locationRepository.findByCode(location.getCode()).isPresent()) {
+            return ResponseEntity.status(400).body("The location code '" + location.getCode() + "' is already taken.");
+        }
+        return ResponseEntity.ok(locationRepository.save(location));
+    }
+
+    // Everything on hand at one store / warehouse
+    @GetMapping("/{id}/stock")
+    public List<LocationBalance> getLocationStock(@PathVariable Long id) {
+        return locationStockService.getBalancesAtLocation(id);
+    }
+
+    // Where one product is, location by location
+    @GetMapping("/product/{productId}")
+    public List<LocationBalance> getProductBalances(@PathVariable Long productId) {
+        return locationStockService.getBalancesForProduct(productId);
+    }
+
+    /**
+     * TRANSFER
+     * e.g. POST /api/locations/transfer?productId=4&fromLocationId=1&toLocationId=2&quantity=10&userId=3
+     */
+    @PostMapping("/transfer")
+    public ResponseEntity<?> transfer(@RequestParam Long productId,
+                                      @RequestParam Long fromLocationId,
+                                      @RequestParam Long toLocationId,
+                                      @RequestParam Integer quantity,
+                                      @RequestParam(required = false) Long userId,
+                                      @RequestParam(required = false) String reference) {
+        try {
+            User user = userId == null ? null : userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+            return ResponseEntity.ok(locationStockService.transfer(productId, fromLocationId, toLocationId,
+                    quantity, reference, user));
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body("Error: " + e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.inventory.backend.controller;
 
+import com.inventory.backend.dto.BulkPriceResult;
+import com.inventory.backend.dto.BulkPriceRule;
+import com.inventory.backend.model.PriceHistory;
 import com.inventory.backend.model.Product;
+import com.inventory.backend.repository.PriceHistoryRepository;
 import com.inventory.backend.repository.ProductRepository;
+import com.inventory.backend.service.BulkPricingService;
+import com.inventory.backend.service.LocationStockService;
 import com.inventory.backend.service.ProductService;
+import com.inventory.backend.web.ColumnarJson;
+import com.inventory.backend.web.ColumnarTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -20,50 +33,93 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private BulkPricingService bulkPricingService;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // 1. FIXED: Now calls the specific query for active products only
+    // Quantities are the live balance sums (the edit form sends them back on PUT)
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAllByActiveTrue();
+        return locationStockService.withLiveQuantities(productRepository.findAllByActiveTrue());
+    }
+
+    // Same list, columnar encoding (Accept: application/vnd.inventory.columnar+json).
+    // Images are base64 text, so they are left out unless ?images=true.
+    @GetMapping(produces = ColumnarJson.MEDIA_TYPE)
+    @Transactional(readOnly = true)
+    public void getAllProductsColumnar(@RequestParam(defaultValue = "false") boolean images,
+                                       HttpServletResponse response) throws IOException {
+        ColumnarTable products = images
+            ? new ColumnarTable("id", "name", "category", "description", "price", "quantity", "imageUrl")
+                .from(productRepository::streamActiveColumnsWithImages)
+            : new ColumnarTable("id", "name", "category", "description", "price", "quantity")
+                .from(productRepository::streamActiveColumns);
+        ColumnarJson.write(response, objectMapper, Map.of("products", products.dictionary("category", "description")));
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public Product getProductById(@PathVariable Long id) {
-        return productRepository.findById(id).orElse(null);
+        return locationStockService.withLiveQuantity(productRepository.findById(id).orElse(null));
     }
 
     // 2. FIXED: Uses the Service's saveOrUpdateProduct to handle reactivations
     @PostMapping
     public Product addProduct(@RequestBody Product product) {
+        // Opening stock goes in through the ledger (default location), not the product row
+        Integer initialStock = product.getQuantity();
         Product savedProduct = productService.saveOrUpdateProduct(product);
         
-        if (savedProduct.getQuantity() != null && savedProduct.getQuantity() > 0) {
-            productService.updateStock(savedProduct.getId(), savedProduct.getQuantity(), "INITIAL_STOCK");
+        if (initialStock != null && initialStock > 0) {
+            productService.updateStock(savedProduct.getId(), initialStock, "INITIAL_STOCK");
         }
         
-        return savedProduct;
+        return locationStockService.withLiveQuantity(savedProduct);
     }
 
+    // Not transactional here: the service commits, then the detached result gets the live quantity
     @PutMapping("/{id}")
     public Product updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        product.setName(productDetails.getName());
-        product.setDescription(productDetails.getDescription());
-        product.setPrice(productDetails.getPrice());
-        product.setImageUrl(productDetails.getImageUrl());
-        product.setQuantity(productDetails.getQuantity());
-        
-        // When updating, we ensure the product is set to active 
-        product.setActive(true);
-        
-        return productRepository.save(product);
+        return locationStockService.withLiveQuantity(productService.updateProduct(id, productDetails));
     }
 
     @PatchMapping("/{id}/stock")
     public Product adjustStock(@PathVariable Long id, @RequestParam Integer amount) {
         String type = (amount > 0) ? "RESTOCK" : "ADJUSTMENT";
-        return productService.updateStock(id, amount, type);
+        return locationStockService.withLiveQuantity(productService.updateStock(id, amount, type));
+    }
+
+    /**
+     * BULK PRICING / CATEGORY MOVE
+     * e.g. POST /api/products/bulk-pricing {"category": "Drinks", "percent": 5, "reason": "Supplier increase"}
+     *      POST /api/products/bulk-pricing {"productIds": [1, 2, 3], "amount": -0.50, "newCategory": "Clearance"}
+     * A batch that stops part-way answers 500 with the result (error set); re-send the same rule
+     * with its "batchId" to finish the remaining products.
+     */
+    @PostMapping("/bulk-pricing")
+    public ResponseEntity<?> bulkPricing(@RequestBody BulkPriceRule rule) {
+        try {
+            BulkPriceResult result = bulkPricingService.apply(rule);
+            return ResponseEntity.status(result.error() == null ? 200 : 500).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/price-history")
+    @Transactional(readOnly = true)
+    public List<PriceHistory> getPriceHistory(@PathVariable Long id) {
+        return priceHistoryRepository.findByProductIdOrderByChangedAtDesc(id);
     }
 
     // 3. FIXED: Calls softDeleteProduct to avoid Foreign Key errors
@@ -1,11 +1,15 @@
 package com.inventory.backend.controller;
 
+import com.inventory.backend.dto.PurchaseView;
 import com.inventory.backend.model.Purchase;
 import com.inventory.backend.model.Product;
 import com.inventory.backend.model.Supplier;
 import com.inventory.backend.repository.PurchaseRepository;
 import com.inventory.backend.repository.SupplierRepository;
+import com.inventory.backend.service.LocationStockService;
+import com.inventory.backend.service.OutboxService;
 import com.inventory.backend.service.ProductService;
+import com.inventory.backend.service.ValuationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,9 +31,19 @@ public class PurchaseController {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private ValuationService valuationService;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private OutboxService outboxService;
+
     @GetMapping
-    public List<Purchase> getAllPurchases() {
-        return purchaseRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<PurchaseView> getAllPurchases() {
+        return purchaseRepository.findAllViews();
     }
 
     /**
@@ -38,12 +52,13 @@ public class PurchaseController {
      */
     @PostMapping("/new-product")
     @Transactional
-    public ResponseEntity<?> createPurchaseWithNewProduct(@RequestBody Purchase purchase) {
+    public ResponseEntity<?> createPurchaseWithNewProduct(@RequestBody Purchase purchase,
+                                                          @RequestParam(required = false) Long locationId) {
         try {
             // The product object sent from UI now includes the category
             Product savedProduct = productService.saveOrUpdateProduct(purchase.getProduct());
             purchase.setProduct(savedProduct);
-            return processPurchase(purchase);
+            return processPurchase(purchase, locationId);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
         }
@@ -54,15 +69,16 @@ public class PurchaseController {
      */
     @PostMapping
     @Transactional
-    public ResponseEntity<?> createPurchase(@RequestBody Purchase purchase) {
+    public ResponseEntity<?> createPurchase(@RequestBody Purchase purchase,
+                                            @RequestParam(required = false) Long locationId) {
         try {
-            return processPurchase(purchase);
+            return processPurchase(purchase, locationId);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
         }
     }
 
-    private ResponseEntity<Purchase> processPurchase(Purchase purchase) {
+    private ResponseEntity<Purchase> processPurchase(Purchase purchase, Long locationId) {
         // 1. Calculate Financials
         if (purchase.getUnitPrice() != null && purchase.getQuantity() != null) {
             purchase.setTotalAmount(purchase.getUnitPrice() * purchase.getQuantity());
@@ -94,10 +110,26 @@ public class PurchaseController {
             purchase.getQuantity(), 
             "PURCHASE FROM: " + supplierDisplayName,
             purchase.getReference(), 
-            purchase.getUser()        
+            purchase.getUser(),
+            locationId                 // Receiving store / warehouse (null = default location)
         );
 
         // 5. Finalize Purchase Entry
-        return ResponseEntity.ok(purchaseRepository.save(purchase));
+        Purchase savedPurchase = purchaseRepository.save(purchase);
+        outboxService.purchaseReceived(savedPurchase, locationStockService.resolve(locationId),
+                "PURCHASE FROM: " + supplierDisplayName);
+
+        // 6. Add a cost layer for FIFO / weighted-average valuation
+        if (savedPurchase.getUnitPrice() != null && savedPurchase.getQuantity() != null) {
+            valuationService.recordReceipt(
+                savedPurchase.getProduct().getId(),
+                savedPurchase.getQuantity(),
+                savedPurchase.getUnitPrice(),
+                savedPurchase.getReference(),
+                savedPurchase.getCreatedAt()
+            );
+        }
+
+        return ResponseEntity.ok(savedPurchase);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.config.JwtUtils;
+import com.inventory.backend.dto.DriftReport;
+import com.inventory.backend.repository.UserRepository;
+import com.inventory.backend.service.ReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+@CrossOrigin(origins = "*")
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Drift report only, nothing is written
+    @GetMapping
+    public DriftReport getDriftReport() {
+        return reconciliationService.reconcile(false, null);
+    }
+
+    // ?correct=true also writes RECONCILIATION ledger rows for every drift found (admins only)
+    @PostMapping
+    public ResponseEntity<?> reconcile(
+            @RequestParam(defaultValue = "false") boolean correct,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!correct) {
+            return ResponseEntity.ok(reconciliationService.reconcile(false, null));
+        }
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(403).body("Access Denied.");
+        }
+        String username = jwtUtils.getUsernameFromToken(authHeader.substring(7));
+        return ResponseEntity.ok(reconciliationService.reconcile(true, userRepository.findByUsername(username)));
+    }
+
+    private boolean isAdmin(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) return false;
+        try {
+            String token = authHeader.substring(7);
+            String role = jwtUtils.getRoleFromToken(token);
+            return "ADMIN".equals(role);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
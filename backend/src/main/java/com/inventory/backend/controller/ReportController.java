@@ -0,0 +1,67 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.dto.ReportJobStatus;
+import com.inventory.backend.dto.ReportSpec;
+import com.inventory.backend.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    /**
+     * SUBMIT
+     * e.g. POST /api/reports {"type": "SALES", "from": "2026-01-01", "to": "2026-01-31", "groupBy": "DAY", "format": "XLSX"}
+     * Poll GET /api/reports/{id} until status is DONE, then fetch downloadUrl.
+     */
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportSpec spec) {
+        try {
+            ReportJobStatus job = reportService.submit(spec);
+            return ResponseEntity.status(ReportService.DONE.equals(job.status()) ? 200 : 202).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body("Error: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, "30").body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobStatus> getStatus(@PathVariable String id) {
+        return reportService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> download(@PathVariable String id) {
+        Optional<ReportJobStatus> job = reportService.getStatus(id);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+
+        Optional<Path> file = reportService.getResult(id);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(409).body("Report is " + job.get().status() + ", not ready for download.");
+        }
+
+        ReportSpec spec = job.get().spec();
+        String filename = spec.type().toLowerCase() + "-report-" + spec.from() + "-to-" + spec.to() + "."
+                + spec.format().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ReportService.contentType(spec.format())))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(new FileSystemResource(file.get()));
+    }
+}
@@ -1,24 +1,49 @@
 package com.inventory.backend.controller;
 
+import com.inventory.backend.dto.OfflineSale;
+import com.inventory.backend.dto.ProductHeader;
+import com.inventory.backend.dto.SaleItemView;
+import com.inventory.backend.dto.SaleView;
+import com.inventory.backend.dto.SalesPage;
 import com.inventory.backend.model.Sale;
 import com.inventory.backend.model.SaleItem;
-import com.inventory.backend.model.Product;
 import com.inventory.backend.model.User;
 import com.inventory.backend.repository.SaleRepository;
 import com.inventory.backend.repository.ProductRepository;
 import com.inventory.backend.repository.UserRepository;
+import com.inventory.backend.service.LocationStockService;
+import com.inventory.backend.service.OutboxService;
+import com.inventory.backend.service.PosSyncService;
 import com.inventory.backend.service.ProductService;
+import com.inventory.backend.service.SaleReferenceAllocator;
+import com.inventory.backend.service.ValuationService;
+import com.inventory.backend.web.ColumnarJson;
+import com.inventory.backend.web.ColumnarTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/sales")
 @CrossOrigin(origins = "*")
 public class SaleController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private SaleRepository saleRepository;
 
@@ -31,55 +56,188 @@ public class SaleController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ValuationService valuationService;
+
+    @Autowired
+    private PosSyncService posSyncService;
+
+    @Autowired
+    private SaleReferenceAllocator referenceAllocator;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Sale> getAllSales() { 
-        return saleRepository.findAll(); 
+    @Transactional(readOnly = true)
+    public List<SaleView> getAllSales() { 
+        // Two queries in total: headers with the cashier, then every line with its product
+        List<SaleView> sales = saleRepository.findAllViews();
+        attachItems(sales, saleRepository.findAllItemViews());
+        return sales;
+    }
+
+    // Same list, columnar encoding: a "sales" table and an "items" table joined on saleId
+    @GetMapping(produces = ColumnarJson.MEDIA_TYPE)
+    @Transactional(readOnly = true)
+    public void getAllSalesColumnar(HttpServletResponse response) throws IOException {
+        ColumnarTable sales = new ColumnarTable("id", "reference", "userId", "username", "totalAmount",
+                "status", "paymentMethod", "createdAt")
+                .dictionary("username", "status", "paymentMethod")
+                .from(saleRepository::streamSaleColumns);
+
+        ColumnarTable items = new ColumnarTable("id", "saleId", "productId", "productName", "quantity", "unitPrice")
+                .dictionary("productName")
+                .from(saleRepository::streamSaleItemColumns);
+
+        Map<String, ColumnarTable> tables = new LinkedHashMap<>();
+        tables.put("sales", sales);
+        tables.put("items", items);
+        ColumnarJson.write(response, objectMapper, tables);
+    }
+
+    /**
+     * SALES HISTORY (keyset paged, newest first)
+     * e.g. /api/sales/history?from=2026-01-01&to=2026-03-31&search=sls-00&size=100
+     * Pass the returned nextCursor as ?cursor= to get the following page.
+     * Two queries per page: the headers, then every line of those sales with its product.
+     */
+    @GetMapping("/history")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getSalesHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+
+        LocalDateTime start = from != null ? from.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 12, 31, 0, 0);
+        String pattern = (search == null || search.isBlank()) ? null : "%" + search.trim().toLowerCase() + "%";
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Ask for one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<SaleView> sales;
+        if (cursor == null || cursor.isBlank()) {
+            sales = saleRepository.findHistoryFirstPage(start, end, pattern, limit);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                LocalDateTime cursorAt = LocalDateTime.parse(cursor.substring(0, separator));
+                Long cursorId = Long.valueOf(cursor.substring(separator + 1));
+                sales = saleRepository.findHistoryPageAfter(start, end, pattern, cursorAt, cursorId, limit);
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(400).body("Invalid cursor: " + cursor);
+            }
+        }
+
+        String nextCursor = null;
+        if (sales.size() > pageSize) {
+            sales = sales.subList(0, pageSize);
+            SaleView last = sales.get(pageSize - 1);
+            nextCursor = last.createdAt() + "_" + last.id();
+        }
+
+        if (!sales.isEmpty()) {
+            attachItems(sales, saleRepository.findItemViewsBySaleIds(sales.stream().map(SaleView::id).toList()));
+        }
+
+        long units = 0;
+        double revenue = 0;
+        for (SaleView sale : sales) {
+            revenue += sale.totalAmount() == null ? 0 : sale.totalAmount();
+            for (SaleItemView item : sale.items()) {
+                units += item.quantity() == null ? 0 : item.quantity();
+            }
+        }
+
+        return ResponseEntity.ok(new SalesPage(sales, sales.size(), units, revenue, nextCursor));
+    }
+
+    private void attachItems(List<SaleView> sales, List<SaleItemView> items) {
+        Map<Long, SaleView> byId = sales.stream().collect(Collectors.toMap(SaleView::id, Function.identity()));
+        for (SaleItemView item : items) {
+            SaleView sale = byId.get(item.saleId());
+            if (sale != null) sale.items().add(item);
+        }
     }
 
     @PostMapping
     @Transactional
-    public Sale createSale(@RequestBody Sale saleRequest, @RequestParam Long userId) {
+    public Sale createSale(@RequestBody Sale saleRequest, @RequestParam Long userId,
+                           @RequestParam(required = false) Long locationId) {
         // 1. Validate User
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        Long location = locationStockService.resolve(locationId);
 
         // 2. Setup the Master Sale record
         saleRequest.setUser(user);
         saleRequest.setStatus("COMPLETED");
-        
-        // Initial save to generate the ID needed for the reference
-        Sale savedSale = saleRepository.save(saleRequest);
+        saleRequest.setCreatedAt(LocalDateTime.now());
 
-        // 3. Generate Invoice Reference
-        String invoiceRef = "SLS-" + String.format("%05d", savedSale.getId());
-        savedSale.setReference(invoiceRef);
+        // 3. Invoice Reference comes from the in-memory block, so the sale is inserted once, complete
+        String invoiceRef = referenceAllocator.nextReference();
+        saleRequest.setReference(invoiceRef);
 
         // 4. Process Items and Calculate Total
         double runningTotal = 0;
         
         for (SaleItem item : saleRequest.getItems()) {
-            // Fetch product to get current price and validate existence
-            Product product = productRepository.findById(item.getProduct().getId())
+            // Current price and existence from the product header, read in this transaction (never cached)
+            ProductHeader product = productRepository.findHeaderById(item.getProduct().getId())
                     .orElseThrow(() -> new RuntimeException("Product not found: " + item.getProduct().getId()));
 
             // Link item to the master sale
-            item.setSale(savedSale);
-            item.setUnitPrice(product.getPrice());
+            item.setSale(saleRequest);
+            item.setUnitPrice(product.price());
             
-            runningTotal += (product.getPrice() * item.getQuantity());
+            runningTotal += (product.price() * item.getQuantity());
 
             // 5. Update Stock for each item in the basket
             productService.updateStock(
-                product.getId(), 
+                product.id(), 
                 -item.getQuantity(), 
                 "SALE", 
                 invoiceRef, 
-                user
+                user,
+                location
             );
+
+            // Consume cost layers for COGS
+            valuationService.recordIssue(product.id(), item.getQuantity(), invoiceRef, saleRequest.getCreatedAt());
         }
 
-        // 6. Update Total and Save Final Sale
-        savedSale.setTotalAmount(runningTotal);
-        return saleRepository.save(savedSale);
+        // 6. Set Total and Save (single insert of the sale and its items)
+        saleRequest.setTotalAmount(runningTotal);
+        Sale saved = saleRepository.save(saleRequest);
+
+        // 7. Outbox row in the same transaction; reactions run after commit
+        outboxService.saleCreated(saved, location);
+        return saved;
+    }
+
+    /**
+     * OFFLINE POS SYNC
+     * e.g. POST /api/sales/sync?userId=3 with [{"clientSaleId": "uuid", "paymentMethod": "CASH",
+     *      "items": [{"productId": 1, "quantity": 2}]}, ...]
+     * Resending the same clientSaleId is safe: it comes back as DUPLICATE with the original sale.
+     * Stock is taken from ?locationId= (the terminal's store), or the default location.
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncOfflineSales(@RequestBody List<OfflineSale> sales, @RequestParam Long userId,
+                                              @RequestParam(required = false) Long locationId) {
+        try {
+            return ResponseEntity.ok(posSyncService.sync(sales, userId, locationId));
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body("Error: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.config.JwtUtils;
+import com.inventory.backend.dto.StockLevel;
+import com.inventory.backend.service.StockSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock-snapshots")
+@CrossOrigin(origins = "*")
+public class StockSnapshotController {
+
+    @Autowired
+    private StockSnapshotService snapshotService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // e.g. /api/stock-snapshots/as-of?at=2026-04-01T00:00:00 -> closing stock of March 31st
+    @GetMapping("/as-of")
+    public List<StockLevel> getStockAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return snapshotService.getStockAsOf(at);
+    }
+
+    // Manual trigger, e.g. to backfill a missed night (defaults to today's midnight; admins only).
+    // Only past midnights: a snapshot is never rewritten, so one taken at a moment that is still
+    // open would freeze a level later movements no longer reach.
+    @PostMapping
+    public ResponseEntity<String> takeSnapshot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(403).body("Access Denied.");
+        }
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime cutoff = at != null ? at : today;
+        if (!cutoff.toLocalTime().equals(LocalTime.MIDNIGHT) || cutoff.isAfter(today)) {
+            return ResponseEntity.status(400).body("Error: Snapshots can only be taken at a past midnight.");
+        }
+        int rows = snapshotService.takeSnapshot(cutoff);
+        return ResponseEntity.ok("Snapshot at " + cutoff + ": " + rows + " products written.");
+    }
+
+    private boolean isAdmin(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) return false;
+        try {
+            String token = authHeader.substring(7);
+            String role = jwtUtils.getRoleFromToken(token);
+            return "ADMIN".equals(role);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
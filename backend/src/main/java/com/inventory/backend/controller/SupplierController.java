@@ -4,6 +4,7 @@ import com.inventory.backend.model.Supplier;
 import com.inventory.backend.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,6 +19,7 @@ public class SupplierController {
 
     // 1. UPDATED: Only fetch suppliers where active = true
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Supplier> getAllSuppliers() {
         return supplierRepository.findAllByActiveTrue();
     }
@@ -0,0 +1,61 @@
+package com.inventory.backend.controller;
+
+import com.inventory.backend.config.JwtUtils;
+import com.inventory.backend.dto.CogsSummary;
+import com.inventory.backend.dto.ValuationReport;
+import com.inventory.backend.service.ValuationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/valuation")
+@CrossOrigin(origins = "*")
+public class ValuationController {
+
+    @Autowired
+    private ValuationService valuationService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    // e.g. /api/valuation?at=2026-03-31T23:59:59 (defaults to now)
+    @GetMapping
+    public ValuationReport getValuation(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return valuationService.getValuation(at != null ? at : LocalDateTime.now());
+    }
+
+    @GetMapping("/cogs")
+    public CogsSummary getCogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return valuationService.getCogs(from, to);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (!isAdmin(authHeader)) {
+            return ResponseEntity.status(403).body("Access Denied.");
+        }
+        try {
+            return ResponseEntity.ok(valuationService.rebuild());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    private boolean isAdmin(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) return false;
+        try {
+            String token = authHeader.substring(7);
+            String role = jwtUtils.getRoleFromToken(token);
+            return "ADMIN".equals(role);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
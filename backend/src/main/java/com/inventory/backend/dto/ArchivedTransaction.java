@@ -0,0 +1,17 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One inventory_transactions row as stored in the cold archive.
+ */
+public record ArchivedTransaction(
+        Long id,
+        Long productId,
+        Long userId,
+        Integer quantity,
+        Double totalAmount,
+        LocalDateTime createdAt,
+        String reference,
+        String description) {
+}
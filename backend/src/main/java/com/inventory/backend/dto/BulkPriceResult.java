@@ -0,0 +1,17 @@
+package com.inventory.backend.dto;
+
+/**
+ * Outcome of one bulk change. On error, the chunks before the failing one stay applied
+ * (their history rows carry the same batchId); re-send the rule with that batchId to finish it.
+ * skipped = products a resumed batch had already repriced.
+ */
+public record BulkPriceResult(
+        String batchId,
+        int matched,
+        int repriced,
+        int recategorized,
+        int chunks,
+        int skipped,
+        long elapsedMs,
+        String error) {
+}
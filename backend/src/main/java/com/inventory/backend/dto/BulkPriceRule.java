@@ -0,0 +1,21 @@
+package com.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * One bulk catalog change.
+ * Targets: active products in `category`, or the ids in `productIds` (one of the two).
+ * Changes: `percent` (e.g. 10 = +10%, -15 = 15% off) and/or `amount` (e.g. 0.50 = +RM0.50),
+ * and/or `newCategory` to move the products to another category.
+ * `batchId`: only to resume a batch that stopped part-way; send the same rule with the
+ * batchId of the failed result and products already repriced in that batch are skipped.
+ */
+public record BulkPriceRule(
+        String category,
+        List<Long> productIds,
+        Double percent,
+        Double amount,
+        String newCategory,
+        String reason,
+        String batchId) {
+}
@@ -0,0 +1,10 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+public record CogsSummary(
+        LocalDateTime from,
+        LocalDateTime to,
+        double fifoCogs,
+        double averageCogs) {
+}
@@ -0,0 +1,13 @@
+package com.inventory.backend.dto;
+
+/**
+ * A product whose stock balances (all locations) disagree with the sum of its ledger rows.
+ * drift = quantity - ledgerQuantity.
+ */
+public record DriftEntry(
+        Long productId,
+        String productName,
+        long quantity,
+        long ledgerQuantity,
+        long drift) {
+}
@@ -0,0 +1,13 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DriftReport(
+        LocalDateTime startedAt,
+        long elapsedMs,
+        int productsChecked,
+        int driftCount,
+        boolean corrected,
+        List<DriftEntry> drifts) {
+}
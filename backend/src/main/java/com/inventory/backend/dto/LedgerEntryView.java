@@ -0,0 +1,27 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ledger row as rendered by the Transactions and Dashboard screens.
+ */
+public record LedgerEntryView(
+        Long id,
+        ProductSummary product,
+        UserSummary user,
+        String description,
+        Integer quantity,
+        String reference,
+        Double totalAmount,
+        LocalDateTime createdAt) {
+
+    // Flat constructor for JPQL "SELECT new" fetch-join queries
+    public LedgerEntryView(Long id, Long productId, String productName, String productCategory, Double productPrice,
+                           Long userId, String username, String role, String description, Integer quantity,
+                           String reference, Double totalAmount, LocalDateTime createdAt) {
+        this(id,
+             productId == null ? null : new ProductSummary(productId, productName, productCategory, productPrice),
+             userId == null ? null : new UserSummary(userId, username, role),
+             description, quantity, reference, totalAmount, createdAt);
+    }
+}
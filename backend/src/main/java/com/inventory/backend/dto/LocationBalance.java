@@ -0,0 +1,13 @@
+package com.inventory.backend.dto;
+
+/**
+ * Stock of one product at one location.
+ */
+public record LocationBalance(
+        Long locationId,
+        String locationCode,
+        String locationName,
+        Long productId,
+        String productName,
+        int quantity) {
+}
@@ -0,0 +1,16 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A basket rung up while the terminal was offline.
+ * clientSaleId is generated on the terminal (e.g. a UUID) and is the idempotency key.
+ * soldAt is the terminal's clock when the sale was rung up (server local time, no zone).
+ */
+public record OfflineSale(
+        String clientSaleId,
+        LocalDateTime soldAt,
+        String paymentMethod,
+        List<OfflineSaleItem> items) {
+}
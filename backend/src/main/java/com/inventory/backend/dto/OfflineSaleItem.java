@@ -0,0 +1,6 @@
+package com.inventory.backend.dto;
+
+public record OfflineSaleItem(
+        Long productId,
+        Integer quantity) {
+}
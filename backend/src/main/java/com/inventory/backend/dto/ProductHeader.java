@@ -0,0 +1,8 @@
+package com.inventory.backend.dto;
+
+/**
+ * The small, rarely-changing part of a product (no stock, description or image).
+ * Loaded through the query cache.
+ */
+public record ProductHeader(Long id, String name, String category, Double price, boolean active) {
+}
@@ -0,0 +1,7 @@
+package com.inventory.backend.dto;
+
+/**
+ * Product header for list views: no description and no image column.
+ */
+public record ProductSummary(Long id, String name, String category, Double price) {
+}
@@ -0,0 +1,9 @@
+package com.inventory.backend.dto;
+
+public record ProductValuation(
+        Long productId,
+        long quantity,
+        double averageUnitCost,
+        double averageValue,
+        double fifoValue) {
+}
@@ -0,0 +1,29 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+public record PurchaseView(
+        Long id,
+        String reference,
+        String category,
+        SupplierSummary supplier,
+        ProductSummary product,
+        UserSummary user,
+        Double unitPrice,
+        Integer quantity,
+        Double totalAmount,
+        String status,
+        LocalDateTime createdAt) {
+
+    // Flat constructor for JPQL "SELECT new" fetch-join queries
+    public PurchaseView(Long id, String reference, String category, Long supplierId, String supplierName,
+                        Long productId, String productName, String productCategory, Double productPrice,
+                        Long userId, String username, String role, Double unitPrice, Integer quantity,
+                        Double totalAmount, String status, LocalDateTime createdAt) {
+        this(id, reference, category,
+             supplierId == null ? null : new SupplierSummary(supplierId, supplierName),
+             productId == null ? null : new ProductSummary(productId, productName, productCategory, productPrice),
+             userId == null ? null : new UserSummary(userId, username, role),
+             unitPrice, quantity, totalAmount, status, createdAt);
+    }
+}
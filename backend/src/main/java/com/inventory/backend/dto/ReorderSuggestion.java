@@ -0,0 +1,15 @@
+package com.inventory.backend.dto;
+
+/**
+ * One row of the reorder report: where the product stands and how much to buy.
+ */
+public record ReorderSuggestion(
+        Long productId,
+        String productName,
+        Integer quantityOnHand,
+        double dailyRate,
+        double leadTimeDays,
+        double reorderPoint,
+        int suggestedQuantity,
+        String lastSupplier) {
+}
@@ -0,0 +1,19 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one report job. status: QUEUED, RUNNING, DONE or FAILED.
+ * cached = true when the file came from an earlier identical run.
+ */
+public record ReportJobStatus(
+        String id,
+        String status,
+        ReportSpec spec,
+        boolean cached,
+        long rows,
+        LocalDateTime submittedAt,
+        LocalDateTime finishedAt,
+        String error,
+        String downloadUrl) {
+}
@@ -0,0 +1,21 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * What to report on.
+ * type: SALES or TRANSACTIONS; groupBy: NONE, DAY, MONTH, PRODUCT or CATEGORY;
+ * format: CSV or XLSX. from / to are inclusive dates.
+ */
+public record ReportSpec(
+        String type,
+        LocalDate from,
+        LocalDate to,
+        String groupBy,
+        String format) {
+
+    // Stable text form used (with the data version) as the cache key
+    public String cacheKey() {
+        return type + "|" + from + "|" + to + "|" + groupBy + "|" + format;
+    }
+}
@@ -0,0 +1,17 @@
+package com.inventory.backend.dto;
+
+public record SaleItemView(
+        Long id,
+        Long saleId,
+        ProductSummary product,
+        Integer quantity,
+        Double unitPrice) {
+
+    // Flat constructor for JPQL "SELECT new" fetch-join queries
+    public SaleItemView(Long id, Long saleId, Long productId, String productName, String productCategory,
+                        Double productPrice, Integer quantity, Double unitPrice) {
+        this(id, saleId,
+             productId == null ? null : new ProductSummary(productId, productName, productCategory, productPrice),
+             quantity, unitPrice);
+    }
+}
@@ -0,0 +1,28 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sale with its lines. The header and the lines are loaded by two separate
+ * queries and stitched together, so there is no per-sale lazy load.
+ */
+public record SaleView(
+        Long id,
+        String reference,
+        UserSummary user,
+        List<SaleItemView> items,
+        Double totalAmount,
+        String status,
+        String paymentMethod,
+        LocalDateTime createdAt) {
+
+    // Flat constructor for JPQL "SELECT new" fetch-join queries; items are filled in afterwards
+    public SaleView(Long id, String reference, Long userId, String username, String role, Double totalAmount,
+                    String status, String paymentMethod, LocalDateTime createdAt) {
+        this(id, reference,
+             userId == null ? null : new UserSummary(userId, username, role),
+             new ArrayList<>(), totalAmount, status, paymentMethod, createdAt);
+    }
+}
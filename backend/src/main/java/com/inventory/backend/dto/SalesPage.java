@@ -0,0 +1,15 @@
+package com.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of sales history plus totals for that page.
+ * nextCursor is null on the last page.
+ */
+public record SalesPage(
+        List<SaleView> sales,
+        int count,
+        long units,
+        double revenue,
+        String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.inventory.backend.dto;
+
+public record StockLevel(Long productId, long quantity) {
+}
@@ -0,0 +1,15 @@
+package com.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * Response of one POS sync call; results are in the same order as the request.
+ */
+public record SyncReport(
+        int received,
+        int created,
+        int duplicates,
+        int rejected,
+        int failed,
+        List<SyncResult> results) {
+}
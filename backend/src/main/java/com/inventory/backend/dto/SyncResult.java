@@ -0,0 +1,15 @@
+package com.inventory.backend.dto;
+
+/**
+ * Outcome for one offline sale.
+ * status: CREATED, DUPLICATE (already synced earlier; saleId/reference point at that sale),
+ * REJECTED (will never succeed as sent) or FAILED (server error, safe to resend).
+ */
+public record SyncResult(
+        String clientSaleId,
+        String status,
+        Long saleId,
+        String reference,
+        Double totalAmount,
+        String message) {
+}
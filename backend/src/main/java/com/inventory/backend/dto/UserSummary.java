@@ -0,0 +1,7 @@
+package com.inventory.backend.dto;
+
+/**
+ * Who did it, without the password hash.
+ */
+public record UserSummary(Long id, String username, String role) {
+}
@@ -0,0 +1,11 @@
+package com.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ValuationReport(
+        LocalDateTime at,
+        double totalAverageValue,
+        double totalFifoValue,
+        List<ProductValuation> products) {
+}
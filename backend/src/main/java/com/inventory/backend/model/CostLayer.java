@@ -0,0 +1,32 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One purchase receipt still (partly) on the shelf.
+ * Sales consume layers oldest-first to get the FIFO cost.
+ */
+@Entity
+@Table(name = "cost_layers", indexes = {
+    @Index(name = "idx_cost_layers_open", columnList = "product_id, remaining_quantity")
+})
+@Data
+public class CostLayer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private String reference;
+    private Double unitCost;
+    private Integer originalQuantity;
+
+    @Column(name = "remaining_quantity")
+    private Integer remainingQuantity;
+
+    private LocalDateTime receivedAt;
+}
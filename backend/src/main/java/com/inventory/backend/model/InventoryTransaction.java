@@ -6,45 +6,51 @@ import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory_transactions")
+@Table(name = "inventory_transactions", indexes = {
+    @Index(name = "idx_inventory_transactions_created", columnList = "created_at")
+})
 @Data
 public class InventoryTransaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
+    // Where the movement happened (null on rows written before locations existed)
+    @Column(name = "location_id")
+    private Long locationId;
+
     private String description; 
     private Integer quantity;    
     private String reference;   
 
     /**
-     * FINAL BULLETPROOF FORMULA (Option B):
-     * 1. Works with "SLS-00055" style references.
-     * 2. REPLACE(reference, 'SLS-', ''): Removes the text prefix.
-     * 3. CAST(... AS UNSIGNED): Converts '00055' to the number 55 to match sale_items.sale_id.
-     * 4. si.product_id = item_id: Ensures correct price for the specific item.
+     * TRANSACTION VALUE:
+     * 1. Purchases: total of the purchase with this reference.
+     * 2. Sales: the sale is found by its reference (unique index), not by parsing
+     *    the number back out of "SLS-00055", so references need not match sale ids.
+     * 3. si.product_id = item_id: Ensures correct price for the specific item.
      */
     @Formula("(SELECT COALESCE(" +
              "(SELECT p.total_amount FROM purchases p WHERE p.reference = reference LIMIT 1), " +
-             "(SELECT (ABS(quantity) * si.unit_price) FROM sale_items si " + 
-             " WHERE si.sale_id = CAST(REPLACE(reference, 'SLS-', '') AS UNSIGNED) " + 
-             " AND si.product_id = item_id LIMIT 1), " +
+             "(SELECT (ABS(quantity) * si.unit_price) FROM sales s JOIN sale_items si ON si.sale_id = s.id " +
+             " WHERE s.reference = reference AND si.product_id = item_id LIMIT 1), " +
              "0))")
     private Double totalAmount;
 
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Services may set the movement time (e.g. an offline sale's till time); otherwise it is now
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) createdAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
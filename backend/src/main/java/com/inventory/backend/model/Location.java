@@ -0,0 +1,29 @@
+package com.inventory.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A store or warehouse that holds stock.
+ */
+@Entity
+@Table(name = "locations")
+@Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Location {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private String code;
+
+    private String name;
+
+    // e.g. "STORE" or "WAREHOUSE"
+    private String type;
+
+    @Column(nullable = false)
+    private boolean active = true;
+}
@@ -0,0 +1,24 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Last outbox event a consumer has fully processed.
+ * Each consumer has its own row, so a slow or failing one never holds back the others.
+ */
+@Entity
+@Table(name = "outbox_checkpoints")
+@Data
+public class OutboxCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
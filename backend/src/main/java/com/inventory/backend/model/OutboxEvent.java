@@ -0,0 +1,55 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to stock, written in the same transaction as the change itself.
+ * OutboxDispatcher hands these to the in-process consumers afterwards, in id order.
+ * Kept compact: ids and numbers only, consumers look up anything else they need.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+public class OutboxEvent {
+
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+    public static final String SALE_CREATED = "SALE_CREATED";
+    public static final String PURCHASE_RECEIVED = "PURCHASE_RECEIVED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    // Sale / purchase id (null for STOCK_CHANGED)
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "location_id")
+    private Long locationId;
+
+    // Signed stock change, or total units of a sale / purchase
+    private Integer quantity;
+
+    // Sale / purchase total
+    private Double amount;
+
+    @Column(length = 64)
+    private String reference;
+
+    // Movement type as written to the ledger, e.g. "SALE" or "PURCHASE FROM: Acme"
+    private String detail;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * An event id a consumer moved past while it was still missing (see OutboxDispatcher).
+ * Checked again on every poll: if the event turns up, it is delivered late; if it is still
+ * missing after the gap retention, its transaction is taken to have rolled back.
+ */
+@Entity
+@Table(name = "outbox_gaps", uniqueConstraints =
+    @UniqueConstraint(name = "uk_outbox_gaps_consumer_event", columnNames = {"consumer", "event_id"}))
+@Data
+public class OutboxGap {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String consumer;
+
+    @Column(name = "event_id", nullable = false)
+    private long eventId;
+
+    @Column(name = "skipped_at", nullable = false)
+    private LocalDateTime skippedAt;
+}
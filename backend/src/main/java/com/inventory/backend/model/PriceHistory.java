@@ -0,0 +1,34 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One price change of one product. Rows of the same bulk repricing share a batchId.
+ */
+@Entity
+@Table(name = "price_history", indexes = {
+    @Index(name = "idx_price_history_product_time", columnList = "product_id, changed_at"),
+    @Index(name = "idx_price_history_batch", columnList = "batch_id")
+})
+@Data
+public class PriceHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private Double oldPrice;
+    private Double newPrice;
+
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
+    private String reason;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+}
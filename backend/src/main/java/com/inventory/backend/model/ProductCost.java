@@ -0,0 +1,25 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Running cost position of a product (weighted-average cost and FIFO value).
+ * Locked and updated once per receipt or issue.
+ */
+@Entity
+@Table(name = "product_costs")
+@Data
+public class ProductCost {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    private long quantityOnHand;
+    private double averageUnitCost;
+    private double fifoValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running demand model for one product.
+ * Every field is folded forward from the previous value on each SALE / PURCHASE
+ * ledger event, so the transaction history never has to be re-read.
+ */
+@Entity
+@Table(name = "product_demand")
+@Data
+public class ProductDemand {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Exponentially smoothed units sold per day (closed days only)
+    private double dailyRate;
+
+    // Exponentially smoothed variance of the daily sales, used for safety stock
+    private double rateVariance;
+
+    // The day currently being accumulated and how much has sold on it so far
+    private LocalDate bucketDate;
+    private int bucketQuantity;
+
+    // Smoothed number of days between restocks (the reorder cycle - shown, not used as lead time)
+    @Column(name = "restock_interval_days")
+    private Double restockIntervalDays;
+
+    private LocalDateTime lastPurchaseAt;
+    private String lastSupplier;
+
+    // Stored so suggestions are one query instead of a recomputation per SKU
+    @Column(name = "reorder_point")
+    private double reorderPoint;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * High-water mark of one reference number series (e.g. "SLS").
+ * Each app instance reserves a block [nextValue, nextValue + blockSize) by bumping
+ * this row, then hands the numbers out from memory.
+ */
+@Entity
+@Table(name = "reference_blocks")
+@Data
+public class ReferenceBlock {
+    @Id
+    @Column(length = 32)
+    private String series;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+}
@@ -0,0 +1,60 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One report request and its progress, shared by every instance.
+ * The file itself lives under inventory.reports.directory as resultKey + "." + format,
+ * so any instance with that directory mounted can serve the download.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+    @Index(name = "idx_report_jobs_result_status", columnList = "result_key, status"),
+    @Index(name = "idx_report_jobs_submitted", columnList = "submitted_at")
+})
+@Data
+public class ReportJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    @Column(name = "group_by", nullable = false, length = 20)
+    private String groupBy;
+
+    @Column(nullable = false, length = 10)
+    private String format;
+
+    // Hash of the spec plus the data version; also the file name
+    @Column(name = "result_key", nullable = false, length = 32)
+    private String resultKey;
+
+    // QUEUED, RUNNING, DONE or FAILED
+    @Column(nullable = false, length = 10)
+    private String status;
+
+    private boolean cached;
+
+    @Column(name = "row_count")
+    private long rowCount;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -7,16 +7,19 @@ import java.util.List;
 import java.util.ArrayList;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+    @Index(name = "idx_sales_created", columnList = "created_at, id"),
+    @Index(name = "idx_sales_reference", columnList = "reference", unique = true)
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Sale {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String reference; // The SLS-XXXXX number
+    private String reference; // The SLS-XXXXX number, allocated before insert (not derived from id)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -33,6 +36,6 @@ public class Sale {
 
     @PrePersist
     protected void onCreate() {
-        this.createdAt = LocalDateTime.now();
+        if (this.createdAt == null) this.createdAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency index for offline POS sync.
+ * One narrow row per client-generated sale id, pointing at the sale it produced,
+ * so a terminal that re-sends its queue never sells the same basket twice.
+ */
+@Entity
+@Table(name = "sale_sync_keys")
+@Data
+public class SaleSyncKey {
+    @Id
+    @Column(name = "client_sale_id", length = 64)
+    private String clientSaleId;
+
+    @Column(name = "sale_id", nullable = false)
+    private Long saleId;
+
+    @Column(name = "synced_at", nullable = false)
+    private LocalDateTime syncedAt;
+}
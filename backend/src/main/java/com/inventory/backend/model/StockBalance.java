@@ -0,0 +1,31 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * On-hand quantity of one product at one location.
+ * Stock movements lock only this row, so two sites selling the same product
+ * no longer wait on each other.
+ */
+@Entity
+@Table(name = "stock_balances", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_balances_product_location", columnNames = {"product_id", "location_id"})
+}, indexes = {
+    @Index(name = "idx_stock_balances_location", columnList = "location_id")
+})
+@Data
+public class StockBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(nullable = false)
+    private int quantity;
+}
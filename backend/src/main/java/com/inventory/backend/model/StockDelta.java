@@ -0,0 +1,24 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A pending change to Product.quantity (the all-locations total).
+ * Movements only insert these rows; a background job folds them into the
+ * product row in batches, so the product row is not locked by every checkout.
+ */
+@Entity
+@Table(name = "stock_deltas")
+@Data
+public class StockDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int delta;
+}
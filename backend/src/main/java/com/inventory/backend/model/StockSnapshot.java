@@ -0,0 +1,31 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * On-hand quantity of one product made up of every ledger row created
+ * strictly before snapshotAt. Products at zero are not written.
+ * One row per (snapshotAt, product): a second writer of the same cutoff fails on the key.
+ */
+@Entity
+@Table(name = "stock_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_snapshots_at_product", columnNames = {"snapshot_at", "product_id"})
+})
+@Data
+public class StockSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    private String kind; // DAILY or MONTH_END
+
+    private Integer quantity;
+}
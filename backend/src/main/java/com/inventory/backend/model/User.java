@@ -1,13 +1,23 @@
 package com.inventory.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "users")
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Second-level cached; the soft delete below is an entity delete, so it also evicts the cached copy
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Soft delete logic: runs an UPDATE instead of a DELETE
 @SQLDelete(sql = "UPDATE users SET deleted = true WHERE id=?")
 // MODERN REPLACEMENT for @Where: Filters out deleted users
@@ -20,11 +30,23 @@ public class User {
     @Column(unique = true, nullable = false)
     private String username;
 
+    // Accepted on login/register, never written back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
     private String role; 
 
-    // Soft delete flag
+    // Soft delete flag - only flip it through userRepository.delete*, never by saving the entity
     private boolean deleted = false;
+
+    // Stamped on every save; report files labelled with user names are versioned on it (ReportService)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.inventory.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only cost journal. Each row carries the position *after* the movement,
+ * so the valuation at any date is simply the latest row per product.
+ */
+@Entity
+@Table(name = "valuation_entries", indexes = {
+    @Index(name = "idx_valuation_product_time", columnList = "product_id, created_at"),
+    @Index(name = "idx_valuation_type_time", columnList = "entry_type, created_at")
+})
+@Data
+public class ValuationEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "entry_type")
+    private String entryType; // RECEIPT, ISSUE (sale) or ADJUSTMENT
+
+    private String reference;
+    private Integer quantity;
+
+    // Signed cost of this movement (negative for issues, i.e. COGS)
+    private Double fifoAmount;
+    private Double averageAmount;
+
+    private Long quantityAfter;
+    private Double averageUnitCost;
+    private Double fifoValueAfter;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
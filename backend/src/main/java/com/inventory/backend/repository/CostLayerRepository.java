@@ -0,0 +1,23 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.CostLayer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface CostLayerRepository extends JpaRepository<CostLayer, Long> {
+
+    // Oldest first, so issues consume them in FIFO order
+    @Query("SELECT l FROM CostLayer l WHERE l.productId = :productId AND l.remainingQuantity > 0 " +
+           "ORDER BY l.receivedAt ASC, l.id ASC")
+    List<CostLayer> findOpenLayers(@Param("productId") Long productId);
+
+    // Used by the per-product rebuild while the product's cost row is locked
+    @Modifying
+    @Query("DELETE FROM CostLayer x WHERE x.productId = :productId")
+    int deleteForProduct(@Param("productId") Long productId);
+}
@@ -1,20 +1,117 @@
 package com.inventory.backend.repository;
 
+import com.inventory.backend.dto.LedgerEntryView;
 import com.inventory.backend.model.InventoryTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long> {
+
+    // Fetch plan for ledger screens: product header and username only (no image, no password)
+    String LEDGER_VIEW = "SELECT new com.inventory.backend.dto.LedgerEntryView(" +
+            "t.id, p.id, p.name, p.category, p.price, u.id, u.username, u.role, " +
+            "t.description, t.quantity, t.reference, t.totalAmount, t.createdAt) " +
+            "FROM InventoryTransaction t LEFT JOIN t.product p LEFT JOIN t.user u ";
     
+    // Ledger rows that are neither sales, purchases, transfers, carry-forward nor reconciliation
+    // corrections (which fix the ledger, not the shelf); kept in step with ValuationService
+    String VALUATION_ADJUSTMENT = "t.description IS NOT NULL AND t.description <> 'SALE' " +
+            "AND t.description NOT LIKE 'PURCHASE%' AND t.description NOT LIKE 'TRANSFER%' " +
+            "AND t.description <> 'CARRY_FORWARD' AND t.description <> 'RECONCILIATION' ";
+
     @Transactional
     @Modifying // Tells Spring this query changes data
     void deleteByProductId(Long productId);
 
-    @Query("SELECT t FROM InventoryTransaction t ORDER BY t.createdAt DESC")
-    List<InventoryTransaction> findAllSorted();
-}
\ No newline at end of file
+    @Query(LEDGER_VIEW + "ORDER BY t.createdAt DESC")
+    List<LedgerEntryView> findAllSorted();
+
+    // Columnar export: [id, productId, productName, userId, username, description, quantity, reference, totalAmount, createdAt]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.id, p.id, p.name, u.id, u.username, t.description, t.quantity, t.reference, t.totalAmount, t.createdAt " +
+           "FROM InventoryTransaction t LEFT JOIN t.product p LEFT JOIN t.user u ORDER BY t.createdAt DESC")
+    Stream<Object[]> streamLedgerColumns();
+
+    // Report rows: [createdAt, productId, userId, description, quantity, reference], oldest first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.createdAt, t.product.id, t.user.id, t.description, t.quantity, t.reference " +
+           "FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD') ORDER BY t.createdAt ASC, t.id ASC")
+    Stream<Object[]> streamReportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Returns one [COUNT, MAX(id)] row for the live rows in the range
+    @Query("SELECT COUNT(t), MAX(t.id) FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD')")
+    List<Object[]> findVersionInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(LEDGER_VIEW + "WHERE t.id = :id")
+    Optional<LedgerEntryView> findViewById(@Param("id") Long id);
+
+    // Original ledger rows in [from, to); carry-forward summaries are left out
+    @Query(LEDGER_VIEW + "WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD') ORDER BY t.createdAt DESC")
+    List<LedgerEntryView> findInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Returns [productId, SUM(quantity)] for original ledger rows created in [from, to)
+    @Query("SELECT t.product.id, SUM(t.quantity) FROM InventoryTransaction t " +
+           "WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD') GROUP BY t.product.id")
+    List<Object[]> sumQuantityByProductBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Returns [productId, SUM(quantity)] for every original ledger row created before the given moment
+    @Query("SELECT t.product.id, SUM(t.quantity) FROM InventoryTransaction t " +
+           "WHERE t.createdAt < :to " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD') GROUP BY t.product.id")
+    List<Object[]> sumQuantityByProductBefore(@Param("to") LocalDateTime to);
+
+    // Returns [productId, SUM(quantity)] for the products in an id range (carry-forward included)
+    @Query("SELECT t.product.id, SUM(t.quantity) FROM InventoryTransaction t " +
+           "WHERE t.product.id BETWEEN :fromId AND :toId GROUP BY t.product.id")
+    List<Object[]> sumQuantityByProductInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Returns [quantity, createdAt, reference, id] for movements that valuation only sees through
+    // updateStock (opening stock, restocks, adjustments), oldest first; archived ones are in the ledger archive
+    @Query("SELECT t.quantity, t.createdAt, t.reference, t.id FROM InventoryTransaction t " +
+           "WHERE t.product.id = :productId AND " + VALUATION_ADJUSTMENT +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<Object[]> findAdjustmentsByProduct(@Param("productId") Long productId);
+
+    @Query("SELECT DISTINCT t.product.id FROM InventoryTransaction t WHERE " + VALUATION_ADJUSTMENT)
+    List<Long> findAdjustedProductIds();
+
+    // --- Archive support ---
+
+    @Query("SELECT MIN(t.createdAt) FROM InventoryTransaction t " +
+           "WHERE t.description IS NULL OR t.description <> 'CARRY_FORWARD'")
+    LocalDateTime findOldestCreatedAt();
+
+    // Returns [id, productId, userId, quantity, totalAmount, createdAt, reference, description] in id order
+    @Query("SELECT t.id, t.product.id, t.user.id, t.quantity, t.totalAmount, t.createdAt, t.reference, t.description " +
+           "FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to AND t.id > :afterId " +
+           "AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD') ORDER BY t.id ASC")
+    List<Object[]> findArchiveBatch(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                    @Param("afterId") Long afterId, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND t.id <= :maxId AND (t.description IS NULL OR t.description <> 'CARRY_FORWARD')")
+    int deleteArchived(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("maxId") Long maxId);
+
+    @Modifying
+    @Query("UPDATE InventoryTransaction t SET t.quantity = t.quantity + :amount " +
+           "WHERE t.product.id = :productId AND t.description = 'CARRY_FORWARD'")
+    int addToCarryForward(@Param("productId") Long productId, @Param("amount") Integer amount);
+}
@@ -0,0 +1,15 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LocationRepository extends JpaRepository<Location, Long> {
+
+    Optional<Location> findByCode(String code);
+
+    List<Location> findAllByActiveTrue();
+}
@@ -0,0 +1,30 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<OutboxEvent> findBatchAfter(@Param("afterId") long afterId, Pageable limit);
+
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e")
+    Long findMaxId();
+
+    // Age of the oldest event a consumer still has to see
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.id > :afterId")
+    LocalDateTime findOldestAfter(@Param("afterId") long afterId);
+
+    // Events every consumer is past
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upToId")
+    int deleteUpTo(@Param("upToId") long upToId);
+}
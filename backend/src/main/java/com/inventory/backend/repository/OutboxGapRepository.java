@@ -0,0 +1,17 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.OutboxGap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface OutboxGapRepository extends JpaRepository<OutboxGap, Long> {
+
+    List<OutboxGap> findByConsumer(String consumer);
+
+    // Lowest id any consumer is still waiting for; events from there on must not be pruned
+    @Query("SELECT MIN(g.eventId) FROM OutboxGap g")
+    Long findLowestEventId();
+}
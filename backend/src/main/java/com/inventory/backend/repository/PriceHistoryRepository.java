@@ -0,0 +1,30 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.PriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+
+    // New price = ROUND(price * factor + delta, 2), never below zero (same expression as ProductRepository.reprice)
+    @Modifying
+    @Query("INSERT INTO PriceHistory (productId, oldPrice, newPrice, batchId, reason, changedAt) " +
+           "SELECT p.id, p.price, " +
+           "CASE WHEN p.price * :factor + :delta < 0 THEN 0.0 ELSE ROUND(p.price * :factor + :delta, 2) END, " +
+           ":batchId, :reason, :at FROM Product p WHERE p.id IN :ids AND p.price IS NOT NULL")
+    int recordRepricing(@Param("ids") Collection<Long> ids, @Param("factor") double factor, @Param("delta") double delta,
+                        @Param("batchId") String batchId, @Param("reason") String reason, @Param("at") LocalDateTime at);
+
+    // Products of this chunk that the batch already repriced (a resumed batch skips them)
+    @Query("SELECT h.productId FROM PriceHistory h WHERE h.batchId = :batchId AND h.productId IN :ids")
+    List<Long> findRepricedInBatch(@Param("batchId") String batchId, @Param("ids") Collection<Long> ids);
+
+    List<PriceHistory> findByProductIdOrderByChangedAtDesc(Long productId);
+}
@@ -0,0 +1,30 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.ProductCost;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductCostRepository extends JpaRepository<ProductCost, Long> {
+
+    // Serializes receipts/issues of the same product so layers are consumed exactly once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ProductCost c WHERE c.productId = :productId")
+    Optional<ProductCost> findForUpdate(@Param("productId") Long productId);
+
+    // Creates the empty position if it is missing; concurrent first movements both land on the same row
+    @Modifying
+    @Query("INSERT INTO ProductCost (productId, quantityOnHand, averageUnitCost, fifoValue) " +
+           "VALUES (:productId, 0, 0, 0) ON CONFLICT DO NOTHING")
+    int insertIfMissing(@Param("productId") Long productId);
+
+    @Query("SELECT c.productId FROM ProductCost c")
+    List<Long> findAllProductIds();
+}
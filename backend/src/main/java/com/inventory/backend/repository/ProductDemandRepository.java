@@ -0,0 +1,42 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.ProductDemand;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Pageable;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductDemandRepository extends JpaRepository<ProductDemand, Long> {
+
+    // Creates the row if missing; two tills making the first sale of a product both succeed
+    @Modifying
+    @Query("INSERT INTO ProductDemand (productId, dailyRate, rateVariance, bucketDate, bucketQuantity, reorderPoint) " +
+           "VALUES (:productId, 0, 0, :day, 0, 0) ON CONFLICT DO NOTHING")
+    int insertIfMissing(@Param("productId") Long productId, @Param("day") LocalDate day);
+
+    // Row lock so two tills selling the same product fold their updates one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ProductDemand d WHERE d.productId = :productId")
+    Optional<ProductDemand> findForUpdate(@Param("productId") Long productId);
+
+    // Models whose open day is over (no sale since), for the nightly decay
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ProductDemand d WHERE d.bucketDate < :today ORDER BY d.productId ASC")
+    List<ProductDemand> findStaleForUpdate(@Param("today") LocalDate today, Pageable limit);
+
+    // Returns [ProductDemand, Product, on-hand] rows for active products at or below their reorder point.
+    // On-hand is the live balance sum, not the folded Product.quantity.
+    @Query("SELECT d, p, " + ProductRepository.LIVE_QUANTITY + " FROM ProductDemand d, Product p " +
+           "WHERE p.id = d.productId AND p.active = true AND d.dailyRate > 0 " +
+           "AND " + ProductRepository.LIVE_QUANTITY + " <= d.reorderPoint " +
+           "ORDER BY (" + ProductRepository.LIVE_QUANTITY + " - d.reorderPoint) ASC")
+    List<Object[]> findBelowReorderPoint();
+}
@@ -1,14 +1,96 @@
 package com.inventory.backend.repository;
 
+import com.inventory.backend.dto.ProductHeader;
+import com.inventory.backend.dto.ProductSummary;
 import com.inventory.backend.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
     // Only fetch products that aren't "deleted"
     List<Product> findAllByActiveTrue();
 
     // Used for the "Smart Add" (reactivation)
     Optional<Product> findByName(String name);
+
+    // Returns a single [MIN(id), MAX(id)] row, used to split id ranges across workers
+    @Query("SELECT MIN(p.id), MAX(p.id) FROM Product p")
+    List<Object[]> findIdBounds();
+
+    // Returns [id, name] rows without loading the image column
+    @Query("SELECT p.id, p.name FROM Product p WHERE p.id BETWEEN :fromId AND :toId")
+    List<Object[]> findNamesInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT new com.inventory.backend.dto.ProductSummary(p.id, p.name, p.category, p.price) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Returns [id, price] rows (stock itself is checked on the location balances)
+    @Query("SELECT p.id, p.price FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Returns [id, name, category] for every product (no image column), used to label report rows
+    @Query("SELECT p.id, p.name, p.category FROM Product p")
+    List<Object[]> findAllNames();
+
+    // Name / category / price / active for one product (no image column). Not query-cached: checkout
+    // prices from it, and an instance's cache does not see a price change made on another instance
+    @Query("SELECT new com.inventory.backend.dto.ProductHeader(p.id, p.name, p.category, p.price, p.active) FROM Product p WHERE p.id = :id")
+    Optional<ProductHeader> findHeaderById(@Param("id") Long id);
+
+    // Bulk pricing targets: ids only, in id order
+    @Query("SELECT p.id FROM Product p WHERE p.active = true AND p.category = :category ORDER BY p.id ASC")
+    List<Long> findActiveIdsByCategory(@Param("category") String category);
+
+    @Query("SELECT p.id FROM Product p WHERE p.active = true AND p.id IN :ids ORDER BY p.id ASC")
+    List<Long> findActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locks a chunk's rows (ids only) so history and update see the same old prices
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids ORDER BY p.id ASC")
+    List<Long> lockIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.price = " +
+           "CASE WHEN p.price * :factor + :delta < 0 THEN 0.0 ELSE ROUND(p.price * :factor + :delta, 2) END " +
+           "WHERE p.id IN :ids AND p.price IS NOT NULL")
+    int reprice(@Param("ids") Collection<Long> ids, @Param("factor") double factor, @Param("delta") double delta);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.category = :category WHERE p.id IN :ids")
+    int reassignCategory(@Param("ids") Collection<Long> ids, @Param("category") String category);
+
+    // Folds queued location movements into the all-locations total.
+    // Native, with stock_deltas as its only query space: an HQL update of Product would drop every cached
+    // products query on each fold, although the fold only moves the quantity.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_deltas"))
+    @Query(value = "UPDATE products SET quantity = COALESCE(quantity, 0) + :delta WHERE id = :id", nativeQuery = true)
+    int addToQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    // Live on-hand total of p over all locations (Product.quantity trails it by the fold interval)
+    String LIVE_QUANTITY = "(SELECT COALESCE(SUM(b.quantity), 0) FROM StockBalance b WHERE b.productId = p.id)";
+
+    // Columnar export: [id, name, category, description, price, quantity] rows, no entities (image is opt-in below)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id, p.name, p.category, p.description, p.price, " + LIVE_QUANTITY + " " +
+           "FROM Product p WHERE p.active = true ORDER BY p.id ASC")
+    Stream<Object[]> streamActiveColumns();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p.id, p.name, p.category, p.description, p.price, " + LIVE_QUANTITY + ", p.imageUrl " +
+           "FROM Product p WHERE p.active = true ORDER BY p.id ASC")
+    Stream<Object[]> streamActiveColumnsWithImages();
 }
\ No newline at end of file
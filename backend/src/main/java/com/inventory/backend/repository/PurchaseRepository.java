@@ -1,9 +1,28 @@
 package com.inventory.backend.repository;
 
+import com.inventory.backend.dto.PurchaseView;
 import com.inventory.backend.model.Purchase;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
-}
\ No newline at end of file
+
+    // Fetch plan for the purchases list: supplier name, product header, username
+    @Query("SELECT new com.inventory.backend.dto.PurchaseView(" +
+           "p.id, p.reference, p.category, s.id, s.name, pr.id, pr.name, pr.category, pr.price, " +
+           "u.id, u.username, u.role, p.unitPrice, p.quantity, p.totalAmount, p.status, p.createdAt) " +
+           "FROM Purchase p LEFT JOIN p.supplier s LEFT JOIN p.product pr LEFT JOIN p.user u ORDER BY p.id ASC")
+    List<PurchaseView> findAllViews();
+
+    @Query("SELECT DISTINCT p.product.id FROM Purchase p WHERE p.product IS NOT NULL")
+    List<Long> findPurchasedProductIds();
+
+    // Returns [quantity, unitPrice, createdAt, reference] rows in receipt order
+    @Query("SELECT p.quantity, p.unitPrice, p.createdAt, p.reference FROM Purchase p " +
+           "WHERE p.product.id = :productId ORDER BY p.createdAt ASC, p.id ASC")
+    List<Object[]> findReceiptsByProduct(@Param("productId") Long productId);
+}
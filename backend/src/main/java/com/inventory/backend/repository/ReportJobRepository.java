@@ -0,0 +1,38 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    // A job for the same report over the same data that is still being built (on any instance)
+    Optional<ReportJob> findFirstByResultKeyAndStatusInAndSubmittedAtAfter(String resultKey, Collection<String> statuses,
+                                                                          LocalDateTime submittedAfter);
+
+    // Jobs whose instance went away mid-build never finish on their own
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = 'FAILED', j.error = 'Abandoned', j.finishedAt = :now " +
+           "WHERE j.status IN ('QUEUED', 'RUNNING') AND j.submittedAt < :cutoff")
+    int failAbandoned(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+    // Finished jobs that point at a file the retention job is about to delete
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportJob j WHERE j.resultKey = :resultKey AND j.status = 'DONE'")
+    int deleteDoneByResultKey(@Param("resultKey") String resultKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,9 +1,100 @@
 package com.inventory.backend.repository;
 
+import com.inventory.backend.dto.SaleItemView;
+import com.inventory.backend.dto.SaleView;
 import com.inventory.backend.model.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
-}
\ No newline at end of file
+
+    // Fetch plan for sales lists: header and cashier only; lines are loaded by a second query
+    String SALE_VIEW = "SELECT new com.inventory.backend.dto.SaleView(" +
+            "s.id, s.reference, u.id, u.username, u.role, s.totalAmount, s.status, s.paymentMethod, s.createdAt) " +
+            "FROM Sale s LEFT JOIN s.user u ";
+
+    String HISTORY_FILTER = "WHERE s.createdAt >= :from AND s.createdAt < :to " +
+            "AND (:search IS NULL OR LOWER(s.reference) LIKE :search) ";
+
+    @Query(SALE_VIEW + "ORDER BY s.id ASC")
+    List<SaleView> findAllViews();
+
+    // --- Keyset paging, newest first on (createdAt, id) ---
+
+    @Query(SALE_VIEW + HISTORY_FILTER + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SaleView> findHistoryFirstPage(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                        @Param("search") String search, Pageable page);
+
+    @Query(SALE_VIEW + HISTORY_FILTER +
+           "AND (s.createdAt < :cursorAt OR (s.createdAt = :cursorAt AND s.id < :cursorId)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SaleView> findHistoryPageAfter(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                        @Param("search") String search, @Param("cursorAt") LocalDateTime cursorAt,
+                                        @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query("SELECT new com.inventory.backend.dto.SaleItemView(" +
+           "i.id, i.sale.id, p.id, p.name, p.category, p.price, i.quantity, i.unitPrice) " +
+           "FROM SaleItem i LEFT JOIN i.product p WHERE i.sale.id IN :saleIds ORDER BY i.id ASC")
+    List<SaleItemView> findItemViewsBySaleIds(@Param("saleIds") Collection<Long> saleIds);
+
+    @Query("SELECT MAX(s.id) FROM Sale s")
+    Long findMaxId();
+
+    // Returns [id, reference, totalAmount] rows, used to answer duplicate sync requests
+    @Query("SELECT s.id, s.reference, s.totalAmount FROM Sale s WHERE s.id IN :ids")
+    List<Object[]> findReceiptsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Report rows: [createdAt, reference, userId, paymentMethod, totalAmount], oldest first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.createdAt, s.reference, s.user.id, s.paymentMethod, s.totalAmount FROM Sale s " +
+           "WHERE s.createdAt >= :from AND s.createdAt < :to ORDER BY s.createdAt ASC, s.id ASC")
+    Stream<Object[]> streamReportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Report lines: [createdAt, productId, quantity, unitPrice]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.createdAt, i.product.id, i.quantity, i.unitPrice FROM SaleItem i JOIN i.sale s " +
+           "WHERE s.createdAt >= :from AND s.createdAt < :to")
+    Stream<Object[]> streamReportLines(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Returns one [COUNT, MAX(id)] row; changes whenever a sale in the range is added or removed
+    @Query("SELECT COUNT(s), MAX(s.id) FROM Sale s WHERE s.createdAt >= :from AND s.createdAt < :to")
+    List<Object[]> findVersionInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Columnar export: [id, reference, userId, username, totalAmount, status, paymentMethod, createdAt]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.id, s.reference, u.id, u.username, s.totalAmount, s.status, s.paymentMethod, s.createdAt " +
+           "FROM Sale s LEFT JOIN s.user u ORDER BY s.id ASC")
+    Stream<Object[]> streamSaleColumns();
+
+    // Columnar export: [id, saleId, productId, productName, quantity, unitPrice]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i.id, i.sale.id, p.id, p.name, i.quantity, i.unitPrice " +
+           "FROM SaleItem i LEFT JOIN i.product p ORDER BY i.id ASC")
+    Stream<Object[]> streamSaleItemColumns();
+
+    @Query("SELECT new com.inventory.backend.dto.SaleItemView(" +
+           "i.id, i.sale.id, p.id, p.name, p.category, p.price, i.quantity, i.unitPrice) " +
+           "FROM SaleItem i LEFT JOIN i.product p ORDER BY i.id ASC")
+    List<SaleItemView> findAllItemViews();
+
+    @Query("SELECT DISTINCT i.product.id FROM SaleItem i WHERE i.product IS NOT NULL")
+    List<Long> findSoldProductIds();
+
+    // Returns [quantity, costedAt, reference] rows in costing order. Offline sales were costed
+    // when they synced, not when they were sold (see PosSyncService), so they replay at syncedAt
+    @Query("SELECT i.quantity, COALESCE(k.syncedAt, s.createdAt), s.reference FROM SaleItem i JOIN i.sale s " +
+           "LEFT JOIN SaleSyncKey k ON k.saleId = s.id " +
+           "WHERE i.product.id = :productId ORDER BY COALESCE(k.syncedAt, s.createdAt) ASC, s.id ASC")
+    List<Object[]> findIssuesByProduct(@Param("productId") Long productId);
+}
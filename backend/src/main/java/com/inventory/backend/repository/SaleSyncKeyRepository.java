@@ -0,0 +1,14 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.SaleSyncKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SaleSyncKeyRepository extends JpaRepository<SaleSyncKey, String> {
+
+    // One primary-key lookup for a whole chunk of client ids
+    List<SaleSyncKey> findByClientSaleIdIn(Collection<String> clientSaleIds);
+}
@@ -0,0 +1,70 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.dto.LocationBalance;
+import com.inventory.backend.model.StockBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockBalanceRepository extends JpaRepository<StockBalance, Long> {
+
+    String BALANCE_VIEW = "SELECT new com.inventory.backend.dto.LocationBalance(" +
+            "l.id, l.code, l.name, p.id, p.name, b.quantity) " +
+            "FROM StockBalance b, Location l, Product p WHERE l.id = b.locationId AND p.id = b.productId ";
+
+    // Row lock on one (product, location) pair; other locations of the same product stay free
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StockBalance b WHERE b.productId = :productId AND b.locationId = :locationId")
+    Optional<StockBalance> findForUpdate(@Param("productId") Long productId, @Param("locationId") Long locationId);
+
+    // Returns [productId, quantity] rows locked for update, in product order so concurrent batches lock in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.productId, b.quantity FROM StockBalance b " +
+           "WHERE b.locationId = :locationId AND b.productId IN :productIds ORDER BY b.productId ASC")
+    List<Object[]> findStockForUpdate(@Param("productIds") Collection<Long> productIds, @Param("locationId") Long locationId);
+
+    // Creates the empty balance if it is missing; two first movements at a location both land on the same row
+    @Modifying
+    @Query("INSERT INTO StockBalance (productId, locationId, quantity) VALUES (:productId, :locationId, 0) " +
+           "ON CONFLICT DO NOTHING")
+    int insertIfMissing(@Param("productId") Long productId, @Param("locationId") Long locationId);
+
+    @Query("SELECT COALESCE(SUM(b.quantity), 0) FROM StockBalance b WHERE b.productId = :productId")
+    long sumByProduct(@Param("productId") Long productId);
+
+    // Returns [productId, SUM(quantity)] over all locations for the given products
+    @Query("SELECT b.productId, SUM(b.quantity) FROM StockBalance b WHERE b.productId IN :productIds GROUP BY b.productId")
+    List<Object[]> sumByProductIn(@Param("productIds") Collection<Long> productIds);
+
+    // Returns [productId, SUM(quantity)] over all locations for the products in an id range
+    @Query("SELECT b.productId, SUM(b.quantity) FROM StockBalance b " +
+           "WHERE b.productId BETWEEN :fromId AND :toId GROUP BY b.productId")
+    List<Object[]> sumByProductInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Same rows as [productId, quantity], locked: movements of the range wait until the caller commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.productId, b.quantity FROM StockBalance b " +
+           "WHERE b.productId BETWEEN :fromId AND :toId ORDER BY b.productId ASC, b.locationId ASC")
+    List<Object[]> findInRangeForUpdate(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query(BALANCE_VIEW + "AND b.productId = :productId ORDER BY l.code ASC")
+    List<LocationBalance> findViewsByProduct(@Param("productId") Long productId);
+
+    @Query(BALANCE_VIEW + "AND b.locationId = :locationId AND p.active = true ORDER BY p.name ASC")
+    List<LocationBalance> findViewsByLocation(@Param("locationId") Long locationId);
+
+    // One-time move of the old single-number stock into the default location
+    @Modifying
+    @Query("INSERT INTO StockBalance (productId, locationId, quantity) " +
+           "SELECT p.id, :locationId, COALESCE(p.quantity, 0) FROM Product p " +
+           "WHERE NOT EXISTS (SELECT 1 FROM StockBalance b WHERE b.productId = p.id)")
+    int seedMissing(@Param("locationId") Long locationId);
+}
@@ -0,0 +1,27 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.StockDelta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockDeltaRepository extends JpaRepository<StockDelta, Long> {
+
+    // Locked so two instances folding at once never apply the same delta twice.
+    // Call it at READ COMMITTED (LocationStockService.foldTotals) so only the rows read are locked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM StockDelta d ORDER BY d.id ASC")
+    List<StockDelta> findBatchForUpdate(Pageable limit);
+
+    @Modifying
+    @Query("DELETE FROM StockDelta d WHERE d.id IN :ids")
+    int deleteFolded(@Param("ids") Collection<Long> ids);
+}
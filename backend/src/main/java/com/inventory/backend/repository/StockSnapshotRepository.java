@@ -0,0 +1,26 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    @Query("SELECT MAX(s.snapshotAt) FROM StockSnapshot s WHERE s.snapshotAt <= :at")
+    LocalDateTime findLatestSnapshotTime(@Param("at") LocalDateTime at);
+
+    List<StockSnapshot> findBySnapshotAt(LocalDateTime snapshotAt);
+
+    boolean existsBySnapshotAt(LocalDateTime snapshotAt);
+
+    // Month-end snapshots are kept forever, daily ones only for the retention window
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE s.kind = 'DAILY' AND s.snapshotAt < :before")
+    int deleteDailyBefore(@Param("before") LocalDateTime before);
+}
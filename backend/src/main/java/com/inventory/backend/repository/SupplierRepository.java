@@ -1,13 +1,17 @@
 package com.inventory.backend.repository;
 
 import com.inventory.backend.model.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     
-    // This will only return suppliers where active is true
+    // This will only return suppliers where active is true (cached until the suppliers table changes)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Supplier> findAllByActiveTrue();
 }
\ No newline at end of file
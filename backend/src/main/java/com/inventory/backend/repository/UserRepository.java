@@ -1,15 +1,31 @@
 package com.inventory.backend.repository;
 
+import com.inventory.backend.dto.UserSummary;
 import com.inventory.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
-    // Finds a user by username
+    // Finds a user by username. Not query-cached: login and role checks must see a changed password or role at once
     User findByUsername(String username);
 
     // SQL equivalent: SELECT COUNT(*) FROM users WHERE role = ? AND deleted = ?
     long countByRoleAndDeleted(String role, boolean deleted);
+
+    // Returns [id, username] for every user, used to label report rows
+    @Query("SELECT u.id, u.username FROM User u")
+    List<Object[]> findAllNames();
+
+    // Returns [count, highest id, last change] in one row: an added, removed or renamed user changes it
+    @Query("SELECT COUNT(u), MAX(u.id), MAX(u.updatedAt) FROM User u")
+    List<Object[]> findNamesVersion();
+
+    @Query("SELECT new com.inventory.backend.dto.UserSummary(u.id, u.username, u.role) FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
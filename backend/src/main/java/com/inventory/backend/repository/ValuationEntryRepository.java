@@ -0,0 +1,30 @@
+package com.inventory.backend.repository;
+
+import com.inventory.backend.model.ValuationEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ValuationEntryRepository extends JpaRepository<ValuationEntry, Long> {
+
+    // Latest position of every product at the given moment. A product's entries are dated
+    // in id order (ValuationService never dates one before the previous), so MAX(id) is the latest
+    @Query("SELECT e FROM ValuationEntry e WHERE e.id IN (" +
+           "SELECT MAX(x.id) FROM ValuationEntry x WHERE x.createdAt <= :at GROUP BY x.productId)")
+    List<ValuationEntry> findPositionsAt(@Param("at") LocalDateTime at);
+
+    // Returns [fifo COGS, average COGS] for issues in the range
+    @Query("SELECT COALESCE(SUM(-e.fifoAmount), 0), COALESCE(SUM(-e.averageAmount), 0) FROM ValuationEntry e " +
+           "WHERE e.entryType = 'ISSUE' AND e.createdAt >= :from AND e.createdAt < :to")
+    List<Object[]> sumCogs(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Used by the per-product rebuild while the product's cost row is locked
+    @Modifying
+    @Query("DELETE FROM ValuationEntry x WHERE x.productId = :productId")
+    int deleteForProduct(@Param("productId") Long productId);
+}
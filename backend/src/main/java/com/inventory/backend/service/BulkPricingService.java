@@ -0,0 +1,118 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.BulkPriceResult;
+import com.inventory.backend.dto.BulkPriceRule;
+import com.inventory.backend.repository.PriceHistoryRepository;
+import com.inventory.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk repricing / category moves.
+ * Only ids are loaded; each chunk is one transaction holding three statements
+ * (lock ids, INSERT ... SELECT the history, UPDATE the prices) plus one UPDATE for the
+ * category, so no product entity (or its image) is ever read or written back.
+ * The history rows and the new prices commit together, so a batch that stopped part-way
+ * is resumed by its batchId: products with a history row in the batch are left alone.
+ */
+@Service
+public class BulkPricingService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.bulk-pricing.chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkPriceResult apply(BulkPriceRule rule) {
+        long started = System.currentTimeMillis();
+
+        boolean byCategory = rule.category() != null && !rule.category().isBlank();
+        boolean byIds = rule.productIds() != null && !rule.productIds().isEmpty();
+        if (byCategory == byIds) {
+            throw new IllegalArgumentException("Give either a category or a list of productIds");
+        }
+        boolean reprice = (rule.percent() != null && rule.percent() != 0) || (rule.amount() != null && rule.amount() != 0);
+        boolean recategorize = rule.newCategory() != null && !rule.newCategory().isBlank();
+        if (!reprice && !recategorize) {
+            throw new IllegalArgumentException("Nothing to change: give percent, amount or newCategory");
+        }
+        if (rule.percent() != null && rule.percent() <= -100) {
+            throw new IllegalArgumentException("percent must be above -100");
+        }
+
+        // new price = ROUND(price * factor + delta, 2)
+        double factor = 1 + (rule.percent() == null ? 0 : rule.percent()) / 100.0;
+        double delta = rule.amount() == null ? 0 : rule.amount();
+        boolean resume = rule.batchId() != null && !rule.batchId().isBlank();
+        if (resume && rule.batchId().trim().length() > 36) {
+            throw new IllegalArgumentException("batchId is not a bulk pricing batch");
+        }
+        String batchId = resume ? rule.batchId().trim() : UUID.randomUUID().toString();
+        String reason = rule.reason() != null ? rule.reason() : "BULK PRICING";
+
+        List<Long> ids = byCategory
+                ? productRepository.findActiveIdsByCategory(rule.category())
+                : productRepository.findActiveIdsByIdIn(rule.productIds());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int repriced = 0, recategorized = 0, chunks = 0, skipped = 0;
+        String error = null;
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                int[] counts = tx.execute(status -> {
+                    int prices = 0, categories = 0, done = 0;
+                    productRepository.lockIds(chunk);
+                    if (reprice) {
+                        // Checked under the row locks, so two retries of one batch cannot both reprice a product
+                        List<Long> pending = chunk;
+                        if (resume) {
+                            Set<Long> repricedBefore = new HashSet<>(priceHistoryRepository.findRepricedInBatch(batchId, chunk));
+                            pending = new ArrayList<>(chunk);
+                            pending.removeAll(repricedBefore);
+                            done = chunk.size() - pending.size();
+                        }
+                        if (!pending.isEmpty()) {
+                            priceHistoryRepository.recordRepricing(pending, factor, delta, batchId, reason, LocalDateTime.now());
+                            prices = productRepository.reprice(pending, factor, delta);
+                        }
+                    }
+                    // Setting the same category again is harmless, so a resumed batch just repeats it
+                    if (recategorize) {
+                        categories = productRepository.reassignCategory(chunk, rule.newCategory().trim());
+                    }
+                    return new int[] {prices, categories, done};
+                });
+                repriced += counts[0];
+                recategorized += counts[1];
+                skipped += counts[2];
+                chunks++;
+            } catch (RuntimeException e) {
+                error = "Stopped at chunk " + (chunks + 1) + ": " + e.getMessage()
+                        + " (re-send the rule with batchId " + batchId + " to finish)";
+                break;
+            }
+        }
+
+        return new BulkPriceResult(batchId, ids.size(), repriced, recategorized, chunks, skipped,
+                System.currentTimeMillis() - started, error);
+    }
+}
@@ -0,0 +1,211 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.ReorderSuggestion;
+import com.inventory.backend.model.Product;
+import com.inventory.backend.model.ProductDemand;
+import com.inventory.backend.repository.ProductDemandRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class DemandForecastService {
+
+    // After this many idle days the old rate has decayed to nothing worth keeping
+    private static final int MAX_IDLE_DAYS = 90;
+
+    private static final int DECAY_BATCH = 1000;
+
+    @Autowired
+    private ProductDemandRepository demandRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.forecast.smoothing:0.2}")
+    private double alpha;
+
+    // One lead time for every product: purchases carry no order date, so a per-supplier
+    // lead time cannot be measured from them yet
+    @Value("${inventory.forecast.lead-time-days:7}")
+    private double leadTimeDays;
+
+    // z-score for the safety stock (1.65 ~ 95% service level)
+    @Value("${inventory.forecast.service-factor:1.65}")
+    private double serviceFactor;
+
+    // Extra days of demand to cover when suggesting an order quantity
+    @Value("${inventory.forecast.cover-days:14}")
+    private double coverDays;
+
+    /**
+     * Called from ProductService.updateStock for every ledger entry.
+     * Only SALE and PURCHASE entries move the model; everything else is ignored.
+     * Each call touches a single product_demand row, so the cost is O(1) per event.
+     */
+    @Transactional
+    public void recordMovement(Product product, int changeAmount, String type, LocalDateTime at) {
+        if (type == null || product == null || product.getId() == null) return;
+
+        boolean isSale = type.equals("SALE");
+        boolean isPurchase = type.startsWith("PURCHASE");
+        if (!isSale && !isPurchase) return;
+
+        // Upsert first, then lock the (now existing) row: no duplicate key or gap-lock deadlock
+        demandRepository.insertIfMissing(product.getId(), at.toLocalDate());
+        ProductDemand demand = demandRepository.findForUpdate(product.getId())
+            .orElseThrow(() -> new RuntimeException("Demand row missing for product " + product.getId()));
+
+        if (isSale) {
+            foldSale(demand, Math.abs(changeAmount), at.toLocalDate());
+        } else {
+            foldPurchase(demand, type, at);
+        }
+
+        demand.setReorderPoint(reorderPoint(demand));
+        demand.setUpdatedAt(at);
+        demandRepository.save(demand);
+    }
+
+    public Optional<ProductDemand> getDemand(Long productId) {
+        return demandRepository.findById(productId);
+    }
+
+    /**
+     * Active products whose stock is at or below their reorder point.
+     * Reads the stored reorder points, so the cost does not depend on ledger size.
+     */
+    @Transactional(readOnly = true)
+    public List<ReorderSuggestion> getReorderSuggestions() {
+        List<ReorderSuggestion> suggestions = new ArrayList<>();
+        for (Object[] row : demandRepository.findBelowReorderPoint()) {
+            ProductDemand demand = (ProductDemand) row[0];
+            Product product = (Product) row[1];
+            suggestions.add(toSuggestion(demand, product, ((Number) row[2]).intValue()));
+        }
+        return suggestions;
+    }
+
+    private ReorderSuggestion toSuggestion(ProductDemand demand, Product product, int onHand) {
+        double target = demand.getReorderPoint() + demand.getDailyRate() * coverDays;
+        int suggested = (int) Math.max(0, Math.ceil(target - onHand));
+
+        return new ReorderSuggestion(
+            product.getId(),
+            product.getName(),
+            onHand,
+            demand.getDailyRate(),
+            leadTimeDays,
+            demand.getReorderPoint(),
+            suggested,
+            demand.getLastSupplier()
+        );
+    }
+
+    /**
+     * NIGHTLY DECAY
+     * Closes the open day of every product that has not sold since, so a product that stopped
+     * selling loses its rate (and reorder point) day by day instead of keeping it until its next sale.
+     * @return number of models advanced
+     */
+    @Scheduled(cron = "${inventory.forecast.decay-cron:0 15 0 * * *}")
+    public int decayIdle() {
+        LocalDate today = LocalDate.now();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int advanced = 0;
+        while (true) {
+            Integer batch = tx.execute(status -> {
+                List<ProductDemand> stale = demandRepository.findStaleForUpdate(today, PageRequest.of(0, DECAY_BATCH));
+                for (ProductDemand demand : stale) {
+                    advanceTo(demand, today);
+                    demand.setReorderPoint(reorderPoint(demand));
+                }
+                demandRepository.saveAll(stale);
+                return stale.size();
+            });
+            advanced += batch;
+            if (batch < DECAY_BATCH) return advanced;
+        }
+    }
+
+    /**
+     * Sales are bucketed per day. When a sale lands on a new day, the previous
+     * bucket is closed into the smoothed rate and any days without sales in
+     * between are applied as zero-demand days (bounded by MAX_IDLE_DAYS).
+     */
+    private void foldSale(ProductDemand demand, int quantity, LocalDate day) {
+        LocalDate bucket = demand.getBucketDate();
+
+        if (bucket != null && day.isAfter(bucket)) {
+            advanceTo(demand, day);
+        } else if (bucket == null) {
+            demand.setBucketDate(day);
+        }
+        // Same day (or a late/backdated entry): keep accumulating
+        demand.setBucketQuantity(demand.getBucketQuantity() + quantity);
+    }
+
+    // Closes the open day and the empty days after it; `day` becomes the open day, with nothing sold yet
+    private void advanceTo(ProductDemand demand, LocalDate day) {
+        LocalDate bucket = demand.getBucketDate();
+        closeDay(demand, demand.getBucketQuantity());
+
+        long idleDays = ChronoUnit.DAYS.between(bucket, day) - 1;
+        if (idleDays >= MAX_IDLE_DAYS) {
+            demand.setDailyRate(0);
+            demand.setRateVariance(0);
+        } else {
+            for (int i = 0; i < idleDays; i++) {
+                closeDay(demand, 0);
+            }
+        }
+
+        demand.setBucketDate(day);
+        demand.setBucketQuantity(0);
+    }
+
+    // Standard exponentially weighted mean / variance update for one observed day
+    private void closeDay(ProductDemand demand, double observed) {
+        double diff = observed - demand.getDailyRate();
+        double increment = alpha * diff;
+        demand.setDailyRate(demand.getDailyRate() + increment);
+        demand.setRateVariance((1 - alpha) * (demand.getRateVariance() + diff * increment));
+    }
+
+    /**
+     * Tracks the smoothed interval between restocks and the last supplier.
+     * The interval is the reorder cycle, not the supplier lead time, so it is not used for the reorder point.
+     */
+    private void foldPurchase(ProductDemand demand, String type, LocalDateTime at) {
+        if (demand.getLastPurchaseAt() != null && at.isAfter(demand.getLastPurchaseAt())) {
+            double gapDays = Duration.between(demand.getLastPurchaseAt(), at).toMinutes() / 1440.0;
+            Double previous = demand.getRestockIntervalDays();
+            demand.setRestockIntervalDays(previous == null ? gapDays : alpha * gapDays + (1 - alpha) * previous);
+        }
+        demand.setLastPurchaseAt(at);
+
+        // ProductService logs purchases as "PURCHASE FROM: <supplier>"
+        int separator = type.indexOf(':');
+        if (separator >= 0) {
+            demand.setLastSupplier(type.substring(separator + 1).trim());
+        }
+    }
+
+    private double reorderPoint(ProductDemand demand) {
+        double safetyStock = serviceFactor * Math.sqrt(demand.getRateVariance() * leadTimeDays);
+        return demand.getDailyRate() * leadTimeDays + safetyStock;
+    }
+}
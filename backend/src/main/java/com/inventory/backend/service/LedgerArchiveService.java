@@ -0,0 +1,384 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.ArchivedTransaction;
+import com.inventory.backend.dto.LedgerEntryView;
+import com.inventory.backend.dto.ProductSummary;
+import com.inventory.backend.dto.UserSummary;
+import com.inventory.backend.model.InventoryTransaction;
+import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.repository.ProductRepository;
+import com.inventory.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * COLD ARCHIVE FOR THE LEDGER
+ * Rows older than the horizon are moved, one calendar month at a time, into
+ * gzip files named ledger-YYYY-MM.<run>.tsv.gz. Files are only ever added,
+ * never rewritten. Each product keeps one CARRY_FORWARD row in the live table
+ * holding the sum of its archived rows, so live sums stay correct.
+ */
+@Service
+public class LedgerArchiveService {
+
+    public static final String CARRY_FORWARD_TYPE = "CARRY_FORWARD";
+
+    private static final String FILE_PREFIX = "ledger-";
+    private static final String FILE_SUFFIX = ".tsv.gz";
+    private static final String PENDING_SUFFIX = ".tmp";
+    // Pending files written to this recently may belong to a run still going on another instance
+    private static final long PENDING_GRACE_MS = 10 * 60 * 1000L;
+    private static final String NULL = "\\N";
+    private static final DateTimeFormatter RUN_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    // Open-ended ranges, kept inside what a MySQL DATETIME can hold
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.archive.directory:ledger-archive}")
+    private String directory;
+
+    @Value("${inventory.archive.horizon-days:365}")
+    private int horizonDays;
+
+    @Value("${inventory.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${inventory.archive.cron:0 0 3 * * *}")
+    public void nightlyArchive() {
+        archive();
+    }
+
+    /**
+     * Moves every original ledger row older than the horizon into the archive.
+     */
+    public synchronized Map<String, Object> archive() {
+        LocalDateTime horizon = LocalDate.now().minusDays(horizonDays).atStartOfDay();
+        // Random tail: two instances starting in the same second must not share a (pending) file
+        String runStamp = LocalDateTime.now().format(RUN_STAMP) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        int months = 0;
+        long rows = 0;
+
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            recoverPendingFiles(dir);
+
+            LocalDateTime oldest = transactionRepository.findOldestCreatedAt();
+            while (oldest != null && oldest.isBefore(horizon)) {
+                YearMonth month = YearMonth.from(oldest);
+                LocalDateTime from = month.atDay(1).atStartOfDay();
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                LocalDateTime to = monthEnd.isBefore(horizon) ? monthEnd : horizon;
+
+                long archived = archiveMonth(dir, month, from, to, runStamp);
+                if (archived == 0) break;
+                rows += archived;
+                months++;
+
+                oldest = transactionRepository.findOldestCreatedAt();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Ledger archive failed: " + e.getMessage(), e);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("horizon", horizon);
+        result.put("months", months);
+        result.put("rowsArchived", rows);
+        return result;
+    }
+
+    /**
+     * Writes the month to a pending file, then deletes the rows and bumps the
+     * carry-forward rows in one transaction, then publishes the file.
+     * The delete must remove exactly the rows that were written; anything else
+     * means another instance archived (part of) the month concurrently, so this
+     * run rolls back, drops its file and leaves the month to the other one.
+     */
+    private long archiveMonth(Path dir, YearMonth month, LocalDateTime from, LocalDateTime to, String runStamp)
+            throws IOException {
+        Path finalFile = dir.resolve(FILE_PREFIX + month + "." + runStamp + FILE_SUFFIX);
+        Path pendingFile = dir.resolve(finalFile.getFileName() + PENDING_SUFFIX);
+
+        Map<Long, Long> carryForward = new HashMap<>();
+        long afterId = 0;
+        long count = 0;
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(pendingFile)), StandardCharsets.UTF_8))) {
+            while (true) {
+                List<Object[]> batch = transactionRepository.findArchiveBatch(from, to, afterId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) break;
+
+                for (Object[] row : batch) {
+                    out.write(toLine(row));
+                    out.write('\n');
+
+                    Long productId = (Long) row[1];
+                    Integer quantity = (Integer) row[3];
+                    if (productId != null && quantity != null) {
+                        carryForward.merge(productId, quantity.longValue(), Long::sum);
+                    }
+                    afterId = (Long) row[0];
+                    count++;
+                }
+            }
+        }
+
+        if (count == 0) {
+            Files.deleteIfExists(pendingFile);
+            return 0;
+        }
+
+        long maxId = afterId;
+        long written = count;
+        boolean committed;
+        try {
+            committed = new TransactionTemplate(transactionManager).execute(status -> {
+                int deleted = transactionRepository.deleteArchived(from, to, maxId);
+                if (deleted != written) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                carryForward.forEach(this::addToCarryForward);
+                return true;
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(pendingFile);
+            throw e;
+        }
+
+        if (!committed) {
+            Files.deleteIfExists(pendingFile);
+            System.out.println("Ledger archive: " + month + " is being archived by another run, skipped.");
+            return 0;
+        }
+
+        Files.move(pendingFile, finalFile, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private void addToCarryForward(Long productId, Long amount) {
+        if (transactionRepository.addToCarryForward(productId, amount.intValue()) > 0) return;
+
+        InventoryTransaction carry = new InventoryTransaction();
+        carry.setProduct(productRepository.getReferenceById(productId));
+        carry.setQuantity(amount.intValue());
+        carry.setDescription(CARRY_FORWARD_TYPE);
+        carry.setReference("ARCHIVE");
+        transactionRepository.save(carry);
+    }
+
+    /**
+     * A pending file left by a crash is published if its rows are already gone
+     * from the live table (the delete committed), otherwise it is discarded.
+     * Recently written ones are left alone: they may be another instance's live run.
+     */
+    private void recoverPendingFiles(Path dir) throws IOException {
+        List<Path> pending;
+        try (Stream<Path> files = Files.list(dir)) {
+            pending = files.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX + PENDING_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+
+        long cutoff = System.currentTimeMillis() - PENDING_GRACE_MS;
+        for (Path file : pending) {
+            if (Files.getLastModifiedTime(file).toMillis() > cutoff) continue;
+
+            Long firstId = null;
+            try (BufferedReader in = openReader(file)) {
+                String line = in.readLine();
+                if (line != null) firstId = parse(line).id();
+            } catch (IOException e) {
+                // Truncated before the first line was flushed
+            }
+
+            if (firstId != null && !transactionRepository.existsById(firstId)) {
+                String name = file.getFileName().toString();
+                Files.move(file, dir.resolve(name.substring(0, name.length() - PENDING_SUFFIX.length())),
+                        StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // --- Range-scan reader ---
+
+    /**
+     * Runs the task while no archive run is going on in this instance, for readers that need
+     * every row to be either still live or already in a file (ValuationService.rebuild).
+     */
+    public synchronized <T> T withoutArchiving(Supplier<T> task) {
+        return task.get();
+    }
+
+    /**
+     * Streams archived rows with createdAt in [from, to). Only the monthly files
+     * overlapping the range are opened; null bounds mean open-ended.
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<ArchivedTransaction> consumer) {
+        LocalDateTime start = from != null ? from : BEGINNING;
+        LocalDateTime end = to != null ? to : END;
+
+        for (Path file : filesOverlapping(start, end)) {
+            try (BufferedReader in = openReader(file)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    ArchivedTransaction row = parse(line);
+                    if (!row.createdAt().isBefore(start) && row.createdAt().isBefore(end)) {
+                        consumer.accept(row);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read ledger archive " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * SUM(quantity) per product over archived rows in [from, to).
+     */
+    public Map<Long, Long> sumByProduct(LocalDateTime from, LocalDateTime to) {
+        Map<Long, Long> sums = new HashMap<>();
+        scan(from, to, row -> {
+            if (row.productId() != null && row.quantity() != null) {
+                sums.merge(row.productId(), row.quantity().longValue(), Long::sum);
+            }
+        });
+        return sums;
+    }
+
+    /**
+     * Ledger rows in [from, to) from both the live table and the archive,
+     * newest first. Carry-forward rows are left out since the originals are returned.
+     */
+    public List<LedgerEntryView> findTransactions(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : BEGINNING;
+        LocalDateTime end = to != null ? to : END;
+
+        List<LedgerEntryView> result = new ArrayList<>(transactionRepository.findInRange(start, end));
+
+        List<ArchivedTransaction> archived = new ArrayList<>();
+        scan(start, end, archived::add);
+        if (!archived.isEmpty()) {
+            // One query each for the product headers and usernames the archived rows refer to
+            Map<Long, ProductSummary> products = productRepository.findSummariesByIdIn(archived.stream()
+                    .map(ArchivedTransaction::productId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(ProductSummary::id, p -> p));
+            Map<Long, UserSummary> users = userRepository.findSummariesByIdIn(archived.stream()
+                    .map(ArchivedTransaction::userId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(UserSummary::id, u -> u));
+
+            for (ArchivedTransaction row : archived) {
+                result.add(new LedgerEntryView(row.id(), products.get(row.productId()), users.get(row.userId()),
+                        row.description(), row.quantity(), row.reference(), row.totalAmount(), row.createdAt()));
+            }
+        }
+
+        result.sort(Comparator.comparing(LedgerEntryView::createdAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return result;
+    }
+
+    private List<Path> filesOverlapping(LocalDateTime from, LocalDateTime to) {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) return Collections.emptyList();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                    String name = p.getFileName().toString();
+                    if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) return false;
+                    YearMonth month = YearMonth.parse(name.substring(FILE_PREFIX.length(), FILE_PREFIX.length() + 7));
+                    LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+                    LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                    return monthStart.isBefore(to) && monthEnd.isAfter(from);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list ledger archive: " + e.getMessage(), e);
+        }
+    }
+
+    private BufferedReader openReader(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8));
+    }
+
+    // --- Line format: tab separated, \N for null, backslash escapes ---
+
+    private String toLine(Object[] row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) line.append('\t');
+            line.append(row[i] == null ? NULL : escape(row[i].toString()));
+        }
+        return line.toString();
+    }
+
+    private ArchivedTransaction parse(String line) {
+        String[] f = line.split("\t", -1);
+        return new ArchivedTransaction(
+            Long.valueOf(f[0]),
+            f[1].equals(NULL) ? null : Long.valueOf(f[1]),
+            f[2].equals(NULL) ? null : Long.valueOf(f[2]),
+            f[3].equals(NULL) ? null : Integer.valueOf(f[3]),
+            f[4].equals(NULL) ? null : Double.valueOf(f[4]),
+            f[5].equals(NULL) ? null : LocalDateTime.parse(f[5]),
+            f[6].equals(NULL) ? null : unescape(f[6]),
+            f[7].equals(NULL) ? null : unescape(f[7])
+        );
+    }
+
+    private String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private String unescape(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
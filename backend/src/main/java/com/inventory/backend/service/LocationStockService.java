@@ -0,0 +1,282 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.LocationBalance;
+import com.inventory.backend.model.InventoryTransaction;
+import com.inventory.backend.model.Location;
+import com.inventory.backend.model.Product;
+import com.inventory.backend.model.StockBalance;
+import com.inventory.backend.model.StockDelta;
+import com.inventory.backend.model.User;
+import com.inventory.backend.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-location stock.
+ * stock_balances holds the quantity of each product at each location and is the
+ * row that movements lock. Product.quantity is the all-locations total, maintained
+ * incrementally from stock_deltas by foldTotals() (every couple of seconds), so it
+ * may trail the balances briefly. Readers that act on the number use the balances:
+ * the product endpoints (the edit form's PUT turns the number it was shown into an
+ * adjustment), reorder suggestions and reconciliation. The folded column is left
+ * for SQL reports and exports that can live with a couple of seconds' lag.
+ */
+@Service
+public class LocationStockService {
+
+    public static final String TRANSFER_OUT = "TRANSFER OUT";
+    public static final String TRANSFER_IN = "TRANSFER IN";
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StockBalanceRepository balanceRepository;
+
+    @Autowired
+    private StockDeltaRepository deltaRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${inventory.locations.default-code:MAIN}")
+    private String defaultCode;
+
+    @Value("${inventory.locations.fold-batch-size:5000}")
+    private int foldBatchSize;
+
+    private volatile Long defaultLocationId;
+
+    /**
+     * STARTUP: make sure the default location exists and products that only
+     * have the old single quantity get a balance row there.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        Long locationId = getDefaultLocationId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int seeded = balanceRepository.seedMissing(locationId);
+            if (seeded > 0) {
+                System.out.println("Moved stock of " + seeded + " products into location " + defaultCode + ".");
+            }
+        });
+    }
+
+    public Long getDefaultLocationId() {
+        Long id = defaultLocationId;
+        if (id != null) return id;
+
+        synchronized (this) {
+            if (defaultLocationId == null) {
+                defaultLocationId = locationRepository.findByCode(defaultCode)
+                        .orElseGet(this::createDefaultLocation)
+                        .getId();
+            }
+            return defaultLocationId;
+        }
+    }
+
+    private Location createDefaultLocation() {
+        Location location = new Location();
+        location.setCode(defaultCode);
+        location.setName("Main Store");
+        location.setType("STORE");
+        try {
+            return locationRepository.saveAndFlush(location);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            return locationRepository.findByCode(defaultCode).orElseThrow();
+        }
+    }
+
+    public Long resolve(Long locationId) {
+        if (locationId == null) return getDefaultLocationId();
+        if (!locationRepository.existsById(locationId)) {
+            throw new RuntimeException("Location not found with ID: " + locationId);
+        }
+        return locationId;
+    }
+
+    /**
+     * Applies one movement to a location's balance (row-locked) and queues the
+     * change for the product total. Must run inside the caller's transaction.
+     * @return the new balance at that location
+     */
+    @Transactional
+    public int applyChange(Long productId, Long locationId, int change) {
+        StockBalance balance = lockOrCreate(productId, locationId);
+
+        int newQuantity = balance.getQuantity() + change;
+        if (newQuantity < 0) {
+            throw new RuntimeException("Insufficient stock!");
+        }
+        balance.setQuantity(newQuantity);
+        balanceRepository.save(balance);
+
+        queueTotalChange(productId, change);
+        return newQuantity;
+    }
+
+    public void queueTotalChange(Long productId, int change) {
+        if (change == 0) return;
+        StockDelta delta = new StockDelta();
+        delta.setProductId(productId);
+        delta.setDelta(change);
+        deltaRepository.save(delta);
+    }
+
+    /**
+     * TRANSFER between two locations.
+     * Both balances are locked in id order (no deadlock with a transfer the other way);
+     * the product total does not change, so no delta is queued.
+     */
+    @Transactional
+    public List<LocationBalance> transfer(Long productId, Long fromLocationId, Long toLocationId,
+                                          int quantity, String reference, User user) {
+        if (quantity <= 0) throw new RuntimeException("Transfer quantity must be positive");
+        if (Objects.equals(fromLocationId, toLocationId)) throw new RuntimeException("Cannot transfer to the same location");
+        if (!productRepository.existsById(productId)) throw new RuntimeException("Product not found");
+
+        Location from = locationRepository.findById(fromLocationId)
+            .orElseThrow(() -> new RuntimeException("Location not found with ID: " + fromLocationId));
+        Location to = locationRepository.findById(toLocationId)
+            .orElseThrow(() -> new RuntimeException("Location not found with ID: " + toLocationId));
+
+        boolean fromFirst = from.getId() < to.getId();
+        StockBalance first = lockOrCreate(productId, fromFirst ? from.getId() : to.getId());
+        StockBalance second = lockOrCreate(productId, fromFirst ? to.getId() : from.getId());
+        StockBalance source = fromFirst ? first : second;
+        StockBalance target = fromFirst ? second : first;
+
+        if (source.getQuantity() < quantity) {
+            throw new RuntimeException("Insufficient stock at " + from.getCode() + " (" + source.getQuantity() + " left)");
+        }
+        source.setQuantity(source.getQuantity() - quantity);
+        target.setQuantity(target.getQuantity() + quantity);
+        balanceRepository.saveAll(List.of(source, target));
+
+        // Two ledger rows that cancel out for the product, one per location
+        LocalDateTime now = LocalDateTime.now();
+        String outType = TRANSFER_OUT + ": " + from.getCode() + " -> " + to.getCode();
+        String inType = TRANSFER_IN + ": " + from.getCode() + " -> " + to.getCode();
+        transactionRepository.saveAll(List.of(
+            transferRow(productId, from.getId(), -quantity, outType, reference, user, now),
+            transferRow(productId, to.getId(), quantity, inType, reference, user, now)
+        ));
+        outboxService.stockChanged(productId, from.getId(), -quantity, outType, reference, user);
+        outboxService.stockChanged(productId, to.getId(), quantity, inType, reference, user);
+
+        return balanceRepository.findViewsByProduct(productId);
+    }
+
+    // Upsert-then-lock: a plain find-or-insert lets two first movements both insert and one fail on the unique key
+    private StockBalance lockOrCreate(Long productId, Long locationId) {
+        balanceRepository.insertIfMissing(productId, locationId);
+        return balanceRepository.findForUpdate(productId, locationId)
+            .orElseThrow(() -> new RuntimeException("Stock balance missing for product " + productId));
+    }
+
+    private InventoryTransaction transferRow(Long productId, Long locationId, int quantity, String type,
+                                             String reference, User user, LocalDateTime at) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProduct(productRepository.getReferenceById(productId));
+        transaction.setLocationId(locationId);
+        transaction.setQuantity(quantity);
+        transaction.setDescription(type);
+        transaction.setReference(reference);
+        transaction.setUser(user);
+        transaction.setCreatedAt(at);
+        return transaction;
+    }
+
+    /**
+     * FOLD TOTALS
+     * Applies queued deltas to Product.quantity: one UPDATE per product per batch
+     * however many movements it had, then deletes the folded rows.
+     * Runs at READ COMMITTED: under REPEATABLE READ the locking batch read also
+     * locks the gap after the last delta, and every checkout inserts into that gap.
+     * @return number of deltas folded
+     */
+    @Scheduled(fixedDelayString = "${inventory.locations.fold-interval-ms:2000}")
+    public int foldTotals() {
+        int folded = 0;
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        while (true) {
+            Integer batch = tx.execute(status -> {
+                List<StockDelta> deltas = deltaRepository.findBatchForUpdate(PageRequest.of(0, foldBatchSize));
+                if (deltas.isEmpty()) return 0;
+
+                Map<Long, Integer> totals = new TreeMap<>();
+                List<Long> ids = new ArrayList<>(deltas.size());
+                for (StockDelta delta : deltas) {
+                    totals.merge(delta.getProductId(), delta.getDelta(), Integer::sum);
+                    ids.add(delta.getId());
+                }
+                totals.forEach((productId, change) -> {
+                    if (change != 0) productRepository.addToQuantity(productId, change);
+                });
+                deltaRepository.deleteFolded(ids);
+                return deltas.size();
+            });
+            folded += batch;
+            if (batch < foldBatchSize) return folded;
+        }
+    }
+
+    public long sumForProduct(Long productId) {
+        return balanceRepository.sumByProduct(productId);
+    }
+
+    /**
+     * Replaces the folded Product.quantity with the live sum of the balances.
+     * Only for products that will not be flushed (read-only transaction or detached),
+     * otherwise the live number would overwrite the folded total.
+     */
+    public <T extends Collection<Product>> T withLiveQuantities(T products) {
+        if (products.isEmpty()) return products;
+        Map<Long, Integer> live = new HashMap<>();
+        for (Object[] row : balanceRepository.sumByProductIn(products.stream().map(Product::getId).toList())) {
+            live.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        products.forEach(p -> p.setQuantity(live.getOrDefault(p.getId(), 0)));
+        return products;
+    }
+
+    public Product withLiveQuantity(Product product) {
+        if (product != null) withLiveQuantities(List.of(product));
+        return product;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LocationBalance> getBalancesForProduct(Long productId) {
+        return balanceRepository.findViewsByProduct(productId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LocationBalance> getBalancesAtLocation(Long locationId) {
+        return balanceRepository.findViewsByLocation(locationId);
+    }
+}
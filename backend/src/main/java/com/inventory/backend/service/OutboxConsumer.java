@@ -0,0 +1,22 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Something that reacts to stock changes after they commit (counters, rollups, index
+ * refresh, alerts, exports). Implement it as a Spring bean and OutboxDispatcher picks it up.
+ * Delivery is at-least-once and in id order, except that an event whose transaction committed
+ * after the gap timeout arrives late, behind higher ids. A batch whose accept() throws, or whose
+ * checkpoint was not saved before a crash, is delivered again, so handling must be idempotent
+ * or tolerate repeats. accept() runs in the dispatcher's transaction - database writes
+ * made through the usual repositories commit or roll back together with the checkpoint.
+ */
+public interface OutboxConsumer {
+
+    /** Stable name, used as the checkpoint key; renaming a consumer replays the retained events. */
+    String name();
+
+    void accept(List<OutboxEvent> events);
+}
@@ -0,0 +1,220 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.model.OutboxCheckpoint;
+import com.inventory.backend.model.OutboxEvent;
+import com.inventory.backend.model.OutboxGap;
+import com.inventory.backend.repository.OutboxCheckpointRepository;
+import com.inventory.backend.repository.OutboxEventRepository;
+import com.inventory.backend.repository.OutboxGapRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OUTBOX DISPATCHER
+ * Every poll, each OutboxConsumer gets the events after its checkpoint, in batches and in id
+ * order. One batch = one transaction: lock the consumer's checkpoint row, read, deliver,
+ * move the checkpoint. A failing consumer keeps its checkpoint and gets the same batch
+ * again next poll (at-least-once); the others carry on.
+ *
+ * Ids are handed out at insert but become visible at commit, so a hole in the ids can be a
+ * checkout still in flight. Delivery stops at a hole until the event after it is older than
+ * gap-timeout-ms (holes left by rolled-back transactions only delay, they never block). The
+ * checkpoint then moves past the hole, but its ids are kept in outbox_gaps and looked up again
+ * on every poll: an event that commits late is still delivered, after the ones that overtook it.
+ * A hole still empty after gap-retention-ms is forgotten (its transaction rolled back), so the
+ * retention has to be longer than the longest transaction that appends events.
+ * Events every consumer is past are deleted, never from the lowest open hole on.
+ */
+@Service
+public class OutboxDispatcher {
+
+    @Autowired
+    private OutboxEventRepository eventRepository;
+
+    @Autowired
+    private OutboxCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private OutboxGapRepository gapRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private List<OutboxConsumer> consumers = List.of();
+
+    @Value("${inventory.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${inventory.outbox.gap-retention-ms:600000}")
+    private long gapRetentionMs;
+
+    private final Map<String, ConsumerStats> stats = new ConcurrentHashMap<>();
+
+    private volatile long prunedUpTo;
+
+    private static class ConsumerStats {
+        final AtomicLong checkpoint = new AtomicLong();
+        final AtomicLong lagEvents = new AtomicLong();
+        final AtomicLong lagMillis = new AtomicLong();
+        Counter delivered;
+        Counter failures;
+    }
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        for (OutboxConsumer consumer : consumers) {
+            ConsumerStats consumerStats = new ConsumerStats();
+            consumerStats.delivered = Counter.builder("inventory.outbox.delivered")
+                    .tag("consumer", consumer.name()).register(registry);
+            consumerStats.failures = Counter.builder("inventory.outbox.failures")
+                    .tag("consumer", consumer.name()).register(registry);
+            Gauge.builder("inventory.outbox.lag.events", consumerStats.lagEvents, AtomicLong::get)
+                    .tag("consumer", consumer.name()).register(registry);
+            Gauge.builder("inventory.outbox.lag.seconds", consumerStats.lagMillis, lag -> lag.get() / 1000.0)
+                    .tag("consumer", consumer.name()).register(registry);
+            stats.put(consumer.name(), consumerStats);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        Long maxId = eventRepository.findMaxId();
+        long newest = maxId == null ? 0 : maxId;
+
+        long prunable = newest;
+        for (OutboxConsumer consumer : consumers) {
+            ConsumerStats consumerStats = stats.get(consumer.name());
+            drain(consumer, consumerStats);
+            refreshLag(consumer, consumerStats, newest);
+            prunable = Math.min(prunable, consumerStats.checkpoint.get());
+        }
+        Long lowestGap = gapRepository.findLowestEventId();
+        if (lowestGap != null) prunable = Math.min(prunable, lowestGap - 1);
+
+        if (prunable > prunedUpTo) {
+            long upTo = prunable;
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> eventRepository.deleteUpTo(upTo));
+            prunedUpTo = upTo;
+        }
+    }
+
+    private void drain(OutboxConsumer consumer, ConsumerStats consumerStats) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            while (true) {
+                Integer delivered = tx.execute(status -> deliverBatch(consumer));
+                consumerStats.delivered.increment(delivered);
+                if (delivered < batchSize) return;
+            }
+        } catch (RuntimeException e) {
+            // Checkpoint was not moved: the same events come again next poll
+            consumerStats.failures.increment();
+            System.out.println("Outbox consumer " + consumer.name() + " failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private int deliverBatch(OutboxConsumer consumer) {
+        OutboxCheckpoint checkpoint = checkpointRepository.findForUpdate(consumer.name())
+            .orElseGet(() -> {
+                OutboxCheckpoint created = new OutboxCheckpoint();
+                created.setConsumer(consumer.name());
+                return created;
+            });
+
+        // Under the checkpoint lock, so the gap rows of this consumer are only touched by one instance
+        List<OutboxEvent> late = lateEvents(consumer.name());
+        List<OutboxEvent> ready = readyPrefix(consumer.name(), checkpoint.getLastEventId(),
+                eventRepository.findBatchAfter(checkpoint.getLastEventId(), PageRequest.of(0, batchSize)));
+        if (late.isEmpty() && ready.isEmpty()) return 0;
+
+        List<OutboxEvent> events = new ArrayList<>(late);
+        events.addAll(ready);
+        consumer.accept(events);
+
+        if (!ready.isEmpty()) {
+            checkpoint.setLastEventId(ready.get(ready.size() - 1).getId());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        }
+        return events.size();
+    }
+
+    // The events up to the first hole that might still be filled by an uncommitted transaction.
+    // Holes passed because they are older than the gap timeout are remembered for lateEvents().
+    private List<OutboxEvent> readyPrefix(String consumer, long afterId, List<OutboxEvent> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settled = now.minus(Duration.ofMillis(gapTimeoutMs));
+        List<OutboxEvent> ready = new ArrayList<>(batch.size());
+        List<OutboxGap> skipped = new ArrayList<>();
+        long expected = afterId + 1;
+        for (OutboxEvent event : batch) {
+            if (event.getId() != expected && event.getCreatedAt().isAfter(settled)) break;
+            for (long missing = expected; missing < event.getId(); missing++) {
+                OutboxGap gap = new OutboxGap();
+                gap.setConsumer(consumer);
+                gap.setEventId(missing);
+                gap.setSkippedAt(now);
+                skipped.add(gap);
+            }
+            ready.add(event);
+            expected = event.getId() + 1;
+        }
+        gapRepository.saveAll(skipped);
+        return ready;
+    }
+
+    // Events that were missing when the checkpoint moved past them and have committed since.
+    // Their gap rows go in the same transaction as the delivery; holes past the retention are dropped.
+    private List<OutboxEvent> lateEvents(String consumer) {
+        List<OutboxGap> gaps = gapRepository.findByConsumer(consumer);
+        if (gaps.isEmpty()) return List.of();
+
+        Map<Long, OutboxEvent> found = eventRepository.findAllById(gaps.stream().map(OutboxGap::getEventId).toList())
+                .stream().collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+        LocalDateTime expired = LocalDateTime.now().minus(Duration.ofMillis(gapRetentionMs));
+        List<OutboxEvent> late = new ArrayList<>();
+        List<OutboxGap> closed = new ArrayList<>();
+        for (OutboxGap gap : gaps) {
+            OutboxEvent event = found.get(gap.getEventId());
+            if (event != null) late.add(event);
+            if (event != null || gap.getSkippedAt().isBefore(expired)) closed.add(gap);
+        }
+        gapRepository.deleteAll(closed);
+        late.sort(Comparator.comparing(OutboxEvent::getId));
+        return late;
+    }
+
+    private void refreshLag(OutboxConsumer consumer, ConsumerStats consumerStats, long newest) {
+        long checkpoint = checkpointRepository.findById(consumer.name())
+            .map(OutboxCheckpoint::getLastEventId)
+            .orElse(0L);
+        consumerStats.checkpoint.set(checkpoint);
+        consumerStats.lagEvents.set(Math.max(0, newest - checkpoint));
+
+        LocalDateTime oldest = newest > checkpoint ? eventRepository.findOldestAfter(checkpoint) : null;
+        consumerStats.lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+}
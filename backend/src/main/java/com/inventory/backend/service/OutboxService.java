@@ -0,0 +1,72 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.model.OutboxEvent;
+import com.inventory.backend.model.Purchase;
+import com.inventory.backend.model.Sale;
+import com.inventory.backend.model.SaleItem;
+import com.inventory.backend.model.User;
+import com.inventory.backend.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * OUTBOX WRITER
+ * Appends one small row per event to outbox_events. MANDATORY: an event only exists if the
+ * change it describes commits, so every caller must already be inside that transaction.
+ * Nothing else happens here - consumers run later, from OutboxDispatcher.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository eventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockChanged(Long productId, Long locationId, int quantity, String detail, String reference, User user) {
+        OutboxEvent event = newEvent(OutboxEvent.STOCK_CHANGED, reference, user);
+        event.setProductId(productId);
+        event.setLocationId(locationId);
+        event.setQuantity(quantity);
+        event.setDetail(detail);
+        eventRepository.save(event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saleCreated(Sale sale, Long locationId) {
+        int units = 0;
+        for (SaleItem item : sale.getItems()) units += item.getQuantity();
+
+        OutboxEvent event = newEvent(OutboxEvent.SALE_CREATED, sale.getReference(), sale.getUser());
+        event.setAggregateId(sale.getId());
+        event.setLocationId(locationId);
+        event.setQuantity(units);
+        event.setAmount(sale.getTotalAmount());
+        event.setDetail(sale.getPaymentMethod());
+        eventRepository.save(event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void purchaseReceived(Purchase purchase, Long locationId, String detail) {
+        OutboxEvent event = newEvent(OutboxEvent.PURCHASE_RECEIVED, purchase.getReference(), purchase.getUser());
+        event.setAggregateId(purchase.getId());
+        event.setProductId(purchase.getProduct().getId());
+        event.setLocationId(locationId);
+        event.setQuantity(purchase.getQuantity());
+        event.setAmount(purchase.getTotalAmount());
+        event.setDetail(detail);
+        eventRepository.save(event);
+    }
+
+    private OutboxEvent newEvent(String type, String reference, User user) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setReference(reference);
+        event.setUserId(user == null ? null : user.getId());
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
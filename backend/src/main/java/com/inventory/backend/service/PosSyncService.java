@@ -0,0 +1,352 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.OfflineSale;
+import com.inventory.backend.dto.OfflineSaleItem;
+import com.inventory.backend.dto.SyncReport;
+import com.inventory.backend.dto.SyncResult;
+import com.inventory.backend.model.*;
+import com.inventory.backend.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Drains the queue of sales a POS terminal rang up while offline.
+ * Sales are deduplicated on their client-generated id (within the batch and
+ * against sale_sync_keys), then processed in chunks: one transaction per chunk,
+ * one locked read of the location's balances and one UPDATE for all stock
+ * decrements in the chunk (the product totals are queued like any other movement).
+ * A failed chunk rolls back on its own and its sales come back as FAILED, so the
+ * terminal can simply resend them.
+ * Sales and their ledger rows carry the till time (soldAt), not the sync time,
+ * so daily totals and demand land on the day the goods left the shelf.
+ */
+@Service
+public class PosSyncService {
+
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SaleSyncKeyRepository syncKeyRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private ValuationService valuationService;
+
+    @Autowired
+    private SaleReferenceAllocator referenceAllocator;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private StockBalanceRepository balanceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${inventory.pos-sync.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${inventory.pos-sync.max-batch:2000}")
+    private int maxBatch;
+
+    // Oldest soldAt accepted; anything older is a stuck queue or a wrong terminal clock
+    @Value("${inventory.pos-sync.max-offline-hours:168}")
+    private long maxOfflineHours;
+
+    // Terminal clocks may run a little ahead of the server
+    @Value("${inventory.pos-sync.max-clock-skew-seconds:300}")
+    private long maxClockSkewSeconds;
+
+    public SyncReport sync(List<OfflineSale> sales, Long userId, Long locationId) {
+        if (sales == null || sales.isEmpty()) {
+            return new SyncReport(0, 0, 0, 0, 0, List.of());
+        }
+        if (sales.size() > maxBatch) {
+            throw new RuntimeException("Too many sales in one sync (max " + maxBatch + ")");
+        }
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new RuntimeException("User not found with ID: " + userId);
+        }
+        Long location = locationStockService.resolve(locationId);
+
+        SyncResult[] results = new SyncResult[sales.size()];
+        LocalDateTime receivedAt = LocalDateTime.now();
+
+        // 1. Shape checks and duplicates inside the batch itself (first occurrence wins)
+        Map<String, Integer> firstIndex = new HashMap<>();
+        Map<Integer, Integer> repeats = new LinkedHashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            OfflineSale sale = sales.get(i);
+            String problem = validate(sale, receivedAt);
+            if (problem != null) {
+                results[i] = new SyncResult(sale == null ? null : sale.clientSaleId(), REJECTED, null, null, null, problem);
+                continue;
+            }
+            Integer first = firstIndex.putIfAbsent(sale.clientSaleId(), i);
+            if (first != null) {
+                repeats.put(i, first);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // 2. One transaction per chunk
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            try {
+                tx.executeWithoutResult(status -> syncChunk(sales, chunk, userId, location, results));
+            } catch (RuntimeException e) {
+                // Nothing from this chunk was committed
+                for (Integer i : chunk) {
+                    results[i] = new SyncResult(sales.get(i).clientSaleId(), FAILED, null, null, null,
+                            "Error: " + e.getMessage());
+                }
+            }
+        }
+
+        // 3. Repeats inside the batch point at whatever their first copy became
+        for (Map.Entry<Integer, Integer> repeat : repeats.entrySet()) {
+            SyncResult first = results[repeat.getValue()];
+            results[repeat.getKey()] = CREATED.equals(first.status()) || DUPLICATE.equals(first.status())
+                    ? new SyncResult(first.clientSaleId(), DUPLICATE, first.saleId(), first.reference(),
+                                     first.totalAmount(), "Repeated in this batch")
+                    : first;
+        }
+
+        int created = 0, duplicates = 0, rejected = 0, failed = 0;
+        for (SyncResult result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED -> rejected++;
+                default -> failed++;
+            }
+        }
+        return new SyncReport(sales.size(), created, duplicates, rejected, failed, Arrays.asList(results));
+    }
+
+    private void syncChunk(List<OfflineSale> sales, List<Integer> chunk, Long userId, Long locationId,
+                           SyncResult[] results) {
+        // 1. Already synced by an earlier call?
+        Map<String, Integer> byClientId = new HashMap<>();
+        for (Integer i : chunk) byClientId.put(sales.get(i).clientSaleId(), i);
+
+        Map<String, Long> known = new HashMap<>();
+        for (SaleSyncKey key : syncKeyRepository.findByClientSaleIdIn(byClientId.keySet())) {
+            known.put(key.getClientSaleId(), key.getSaleId());
+        }
+        if (!known.isEmpty()) {
+            Map<Long, Object[]> receipts = new HashMap<>();
+            for (Object[] row : saleRepository.findReceiptsByIdIn(known.values())) {
+                receipts.put((Long) row[0], row);
+            }
+            for (Map.Entry<String, Long> entry : known.entrySet()) {
+                Object[] receipt = receipts.get(entry.getValue());
+                results[byClientId.get(entry.getKey())] = new SyncResult(entry.getKey(), DUPLICATE, entry.getValue(),
+                        receipt == null ? null : (String) receipt[1],
+                        receipt == null ? null : (Double) receipt[2],
+                        "Already synced");
+            }
+        }
+
+        List<Integer> fresh = chunk.stream().filter(i -> !known.containsKey(sales.get(i).clientSaleId())).toList();
+        if (fresh.isEmpty()) return;
+
+        // 2. Lock this location's stock of every product in the chunk, then play the baskets in order
+        Set<Long> productIds = new TreeSet<>();
+        for (Integer i : fresh) {
+            for (OfflineSaleItem item : sales.get(i).items()) productIds.add(item.productId());
+        }
+        Map<Long, Double> prices = new HashMap<>();
+        for (Object[] row : productRepository.findPricesByIdIn(productIds)) {
+            prices.put((Long) row[0], row[1] == null ? 0.0 : (Double) row[1]);
+        }
+        Map<Long, Integer> available = new HashMap<>();
+        for (Object[] row : balanceRepository.findStockForUpdate(productIds, locationId)) {
+            available.put((Long) row[0], (Integer) row[1]);
+        }
+
+        Map<Long, Integer> decrements = new TreeMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (Integer i : fresh) {
+            OfflineSale sale = sales.get(i);
+            Map<Long, Integer> basket = new LinkedHashMap<>();
+            for (OfflineSaleItem item : sale.items()) basket.merge(item.productId(), item.quantity(), Integer::sum);
+
+            String problem = null;
+            for (Map.Entry<Long, Integer> line : basket.entrySet()) {
+                if (!prices.containsKey(line.getKey())) {
+                    problem = "Product not found: " + line.getKey();
+                    break;
+                }
+                int onHand = available.getOrDefault(line.getKey(), 0);
+                if (onHand < line.getValue()) {
+                    problem = "Insufficient stock for product " + line.getKey() + " (" + onHand + " left)";
+                    break;
+                }
+            }
+            if (problem != null) {
+                results[i] = new SyncResult(sale.clientSaleId(), REJECTED, null, null, null, problem);
+                continue;
+            }
+
+            for (Map.Entry<Long, Integer> line : basket.entrySet()) {
+                available.merge(line.getKey(), -line.getValue(), Integer::sum);
+                decrements.merge(line.getKey(), line.getValue(), Integer::sum);
+            }
+            accepted.add(i);
+        }
+        if (accepted.isEmpty()) return;
+
+        // 3. All balance decrements of the chunk in one statement, one queued total change per product
+        decrementStock(decrements, locationId);
+        decrements.forEach((productId, quantity) -> locationStockService.queueTotalChange(productId, -quantity));
+
+        // 4. Sales, ledger rows and idempotency keys
+        User user = userRepository.getReferenceById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        // Stock snapshots are built from the ledger rows before their cutoff; a row dated before the
+        // latest one would never be counted, so such movements are booked at that cutoff instead
+        LocalDateTime snapshotCutoff = snapshotRepository.findLatestSnapshotTime(now);
+        List<InventoryTransaction> ledger = new ArrayList<>();
+
+        for (Integer i : accepted) {
+            OfflineSale offline = sales.get(i);
+            LocalDateTime soldAt = offline.soldAt();
+            LocalDateTime bookedAt = snapshotCutoff != null && soldAt.isBefore(snapshotCutoff) ? snapshotCutoff : soldAt;
+
+            String invoiceRef = referenceAllocator.nextReference();
+
+            Sale sale = new Sale();
+            sale.setReference(invoiceRef);
+            sale.setCreatedAt(soldAt);
+            sale.setUser(user);
+            sale.setStatus("COMPLETED");
+            sale.setPaymentMethod(offline.paymentMethod());
+
+            double total = 0;
+            for (OfflineSaleItem line : offline.items()) {
+                SaleItem item = new SaleItem();
+                item.setSale(sale);
+                item.setProduct(productRepository.getReferenceById(line.productId()));
+                item.setQuantity(line.quantity());
+                item.setUnitPrice(prices.get(line.productId()));
+                total += item.getUnitPrice() * line.quantity();
+                sale.getItems().add(item);
+            }
+            sale.setTotalAmount(total);
+            Sale saved = saleRepository.save(sale);
+
+            for (SaleItem item : saved.getItems()) {
+                InventoryTransaction transaction = new InventoryTransaction();
+                transaction.setProduct(item.getProduct());
+                transaction.setLocationId(locationId);
+                transaction.setQuantity(-item.getQuantity());
+                transaction.setDescription("SALE");
+                transaction.setReference(invoiceRef);
+                transaction.setUser(user);
+                transaction.setCreatedAt(bookedAt);
+                ledger.add(transaction);
+
+                outboxService.stockChanged(item.getProduct().getId(), locationId, -item.getQuantity(), "SALE", invoiceRef, user);
+                demandForecastService.recordMovement(item.getProduct(), -item.getQuantity(), "SALE", soldAt);
+                // Costed now, not at soldAt: each journal entry carries the running position, so it
+                // must not be dated before entries already written (the rebuild replays it at syncedAt)
+                valuationService.recordIssue(item.getProduct().getId(), item.getQuantity(), invoiceRef, now);
+            }
+
+            // Assigned id: persist directly instead of save(), which would SELECT first to decide insert vs merge
+            SaleSyncKey key = new SaleSyncKey();
+            key.setClientSaleId(offline.clientSaleId());
+            key.setSaleId(saved.getId());
+            key.setSyncedAt(now);
+            entityManager.persist(key);
+
+            outboxService.saleCreated(saved, locationId);
+
+            results[i] = new SyncResult(offline.clientSaleId(), CREATED, saved.getId(), invoiceRef, total, null);
+        }
+        transactionRepository.saveAll(ledger);
+    }
+
+    // UPDATE stock_balances SET quantity = quantity - CASE product_id WHEN ? THEN ? ... END
+    //  WHERE location_id = ? AND product_id IN (...)
+    private void decrementStock(Map<Long, Integer> decrements, Long locationId) {
+        StringBuilder jpql = new StringBuilder("UPDATE StockBalance b SET b.quantity = b.quantity - CASE b.productId");
+        for (int n = 0; n < decrements.size(); n++) {
+            jpql.append(" WHEN :id").append(n).append(" THEN :qty").append(n);
+        }
+        jpql.append(" ELSE 0 END WHERE b.locationId = :locationId AND b.productId IN :ids");
+
+        Query update = entityManager.createQuery(jpql.toString());
+        int n = 0;
+        for (Map.Entry<Long, Integer> entry : decrements.entrySet()) {
+            update.setParameter("id" + n, entry.getKey());
+            update.setParameter("qty" + n, entry.getValue());
+            n++;
+        }
+        update.setParameter("locationId", locationId);
+        update.setParameter("ids", decrements.keySet());
+        update.executeUpdate();
+    }
+
+    private String validate(OfflineSale sale, LocalDateTime receivedAt) {
+        if (sale == null) return "Empty sale";
+        if (sale.clientSaleId() == null || sale.clientSaleId().isBlank()) return "clientSaleId is required";
+        if (sale.clientSaleId().length() > MAX_CLIENT_ID_LENGTH) {
+            return "clientSaleId longer than " + MAX_CLIENT_ID_LENGTH + " characters";
+        }
+        if (sale.soldAt() == null) return "soldAt is required";
+        if (sale.soldAt().isAfter(receivedAt.plusSeconds(maxClockSkewSeconds))) return "soldAt is in the future";
+        if (Duration.between(sale.soldAt(), receivedAt).toHours() >= maxOfflineHours) {
+            return "soldAt older than " + maxOfflineHours + " hours";
+        }
+        if (sale.items() == null || sale.items().isEmpty()) return "Sale has no items";
+        for (OfflineSaleItem item : sale.items()) {
+            if (item == null || item.productId() == null) return "Item without productId";
+            if (item.quantity() == null || item.quantity() <= 0) return "Quantity must be positive";
+        }
+        return null;
+    }
+}
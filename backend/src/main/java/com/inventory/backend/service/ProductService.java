@@ -19,9 +19,23 @@ public class ProductService {
     @Autowired
     private InventoryTransactionRepository transactionRepository;
 
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ValuationService valuationService;
+
     /**
      * SMART SAVE / REACTIVATE
      * Updates existing products or saves new ones.
+     * Stock is not set here: it only changes through updateStock (per location),
+     * so new products start at 0 and existing ones keep their balances.
      */
     @Transactional
     public Product saveOrUpdateProduct(Product incoming) {
@@ -29,12 +43,35 @@ public class ProductService {
             .map(existing -> {
                 existing.setActive(true);
                 existing.setPrice(incoming.getPrice());
-                existing.setQuantity(incoming.getQuantity());
                 existing.setImageUrl(incoming.getImageUrl());
                 existing.setDescription(incoming.getDescription());
                 return productRepository.save(existing);
             })
-            .orElseGet(() -> productRepository.save(incoming));
+            .orElseGet(() -> {
+                incoming.setQuantity(0);
+                return productRepository.save(incoming);
+            });
+    }
+
+    /**
+     * EDIT FORM SAVE
+     * Copies the editable fields only. The form's quantity is ignored: it is the level the
+     * form was loaded with, and turning it into an adjustment would undo every sale made
+     * since. Stock changes go through PATCH /api/products/{id}/stock as an explicit delta.
+     */
+    @Transactional
+    public Product updateProduct(Long id, Product details) {
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        product.setName(details.getName());
+        product.setDescription(details.getDescription());
+        product.setPrice(details.getPrice());
+        product.setImageUrl(details.getImageUrl());
+
+        // When updating, we ensure the product is set to active
+        product.setActive(true);
+        return productRepository.save(product);
     }
 
     /**
@@ -48,26 +85,38 @@ public class ProductService {
     }
 
     /**
-     * MAIN VERSION (Overloaded)
-     * Used by PurchaseController to handle Reference and User data for the transaction log.
+     * Default-location version: keeps callers that don't know about locations working.
+     * Returns the product, loaded after the change.
      */
     @Transactional
     public Product updateStock(Long productId, Integer changeAmount, String type, String reference, User user) {
-        Product product = productRepository.findById(productId)
+        updateStock(productId, changeAmount, type, reference, user, null);
+        return productRepository.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
 
-        int newQuantity = product.getQuantity() + changeAmount;
-        
-        if (newQuantity < 0) {
-            throw new RuntimeException("Insufficient stock!");
+    /**
+     * MAIN VERSION (Overloaded)
+     * Used by PurchaseController / SaleController to handle Reference, User and Location.
+     * Only the (product, location) balance row is locked; the product total is queued
+     * and folded in later, so the product's quantity can trail by a few seconds.
+     * The product row itself is never read: existence comes from the narrow header and
+     * the ledger row only needs a reference (no LONGTEXT image per basket line).
+     */
+    @Transactional
+    public void updateStock(Long productId, Integer changeAmount, String type, String reference, User user, Long locationId) {
+        if (productRepository.findHeaderById(productId).isEmpty()) {
+            throw new RuntimeException("Product not found");
         }
+        Product updatedProduct = productRepository.getReferenceById(productId);
 
-        product.setQuantity(newQuantity);
-        Product updatedProduct = productRepository.save(product);
+        Long location = locationStockService.resolve(locationId);
+        locationStockService.applyChange(productId, location, changeAmount);
 
         // --- Log to inventory_transactions table ---
         InventoryTransaction transaction = new InventoryTransaction();
         transaction.setProduct(updatedProduct); // Maps to item_id in DB
+        transaction.setLocationId(location);
         transaction.setQuantity(changeAmount); 
         transaction.setDescription(type); 
         transaction.setReference(reference);    // The manual reference from UI
@@ -76,7 +125,14 @@ public class ProductService {
         
         transactionRepository.save(transaction);
 
-        return updatedProduct;
+        // Opening stock, restocks and adjustments move the cost position too (sales/purchases are costed by their callers)
+        valuationService.recordMovement(productId, changeAmount, type, reference, transaction.getCreatedAt());
+
+        // Reactions (counters, rollups, ...) run later from the outbox, outside this transaction
+        outboxService.stockChanged(productId, location, changeAmount, type, reference, user);
+
+        // Fold this movement into the product's demand model (single-row update)
+        demandForecastService.recordMovement(updatedProduct, changeAmount, type, transaction.getCreatedAt());
     }
 
     /**
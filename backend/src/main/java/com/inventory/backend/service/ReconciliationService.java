@@ -0,0 +1,201 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.DriftEntry;
+import com.inventory.backend.dto.DriftReport;
+import com.inventory.backend.model.InventoryTransaction;
+import com.inventory.backend.model.User;
+import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.repository.ProductRepository;
+import com.inventory.backend.repository.StockBalanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compares each product's stock balances (summed over locations) with the sum
+ * of its inventory_transactions rows. Balances and ledger rows are written in
+ * the same transaction by every movement, so both are read in one repeatable-read
+ * transaction per range; Product.quantity is not used (it trails the balances).
+ * The product id space is split into ranges on a fork/join pool; each leaf
+ * loads one range of balance and ledger sums (grouped in the database),
+ * so memory stays bounded by the chunk size rather than the ledger size.
+ */
+@Service
+public class ReconciliationService {
+
+    public static final String CORRECTION_TYPE = "RECONCILIATION";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private StockBalanceRepository balanceRepository;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reconciliation.chunk-size:5000}")
+    private long chunkSize;
+
+    // 0 = one worker per core (keep it below the connection pool size)
+    @Value("${inventory.reconciliation.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * NIGHTLY CHECK (report only)
+     */
+    @Scheduled(cron = "${inventory.reconciliation.cron:0 30 1 * * *}")
+    public void nightlyCheck() {
+        DriftReport report = reconcile(false, null);
+        if (report.driftCount() > 0) {
+            System.out.println("Ledger drift: " + report.driftCount() + " of "
+                    + report.productsChecked() + " products disagree with their ledger.");
+        }
+    }
+
+    /**
+     * @param correct when true, writes a RECONCILIATION ledger row for each drift so
+     *                the ledger matches the stock on the shelf (stock is not touched).
+     *                Corrections go to the default location (carry-forward and legacy
+     *                rows have none, so drift is only known per product) under the given user.
+     */
+    public DriftReport reconcile(boolean correct, User user) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        Long correctionLocation = correct ? locationStockService.getDefaultLocationId() : null;
+
+        Object[] bounds = productRepository.findIdBounds().get(0);
+        Partial total = new Partial();
+
+        if (bounds[0] != null) {
+            int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                total = pool.invoke(new RangeTask((Long) bounds[0], (Long) bounds[1], correct, correctionLocation, user));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        total.drifts.sort(Comparator.comparing(DriftEntry::productId));
+
+        return new DriftReport(startedAt, System.currentTimeMillis() - started,
+                total.checked, total.drifts.size(), correct, total.drifts);
+    }
+
+    private Partial checkRange(long fromId, long toId, boolean correct, Long location, User user) {
+        // One repeatable-read transaction per range so balances and ledger come from the same snapshot.
+        // Report-only runs are read-only (and may use a replica); corrections lock the range's balances
+        // first, so the snapshot starts after the lock and no movement or second run can slip in between.
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        tx.setReadOnly(!correct);
+
+        return tx.execute(status -> {
+            Map<Long, Long> stock = new HashMap<>();
+            if (correct) {
+                for (Object[] row : balanceRepository.findInRangeForUpdate(fromId, toId)) {
+                    stock.merge((Long) row[0], row[1] == null ? 0L : ((Number) row[1]).longValue(), Long::sum);
+                }
+            } else {
+                for (Object[] row : balanceRepository.sumByProductInRange(fromId, toId)) {
+                    stock.put((Long) row[0], row[1] == null ? 0L : ((Number) row[1]).longValue());
+                }
+            }
+
+            Map<Long, Long> ledger = new HashMap<>();
+            for (Object[] row : transactionRepository.sumQuantityByProductInRange(fromId, toId)) {
+                if (row[0] == null) continue;
+                ledger.put((Long) row[0], row[1] == null ? 0L : ((Number) row[1]).longValue());
+            }
+
+            Partial partial = new Partial();
+            for (Object[] row : productRepository.findNamesInRange(fromId, toId)) {
+                Long productId = (Long) row[0];
+                long quantity = stock.getOrDefault(productId, 0L);
+                long ledgerQuantity = ledger.getOrDefault(productId, 0L);
+
+                partial.checked++;
+                if (quantity != ledgerQuantity) {
+                    partial.drifts.add(new DriftEntry(productId, (String) row[1], quantity,
+                            ledgerQuantity, quantity - ledgerQuantity));
+                }
+            }
+
+            if (correct && !partial.drifts.isEmpty()) {
+                writeCorrections(partial.drifts, location, user);
+            }
+            return partial;
+        });
+    }
+
+    // Runs inside the range transaction, while its balances are still locked
+    private void writeCorrections(List<DriftEntry> drifts, Long location, User user) {
+        List<InventoryTransaction> corrections = new ArrayList<>();
+        for (DriftEntry drift : drifts) {
+            InventoryTransaction transaction = new InventoryTransaction();
+            transaction.setProduct(productRepository.getReferenceById(drift.productId()));
+            transaction.setLocationId(location);
+            transaction.setUser(user);
+            transaction.setQuantity((int) drift.drift());
+            transaction.setDescription(CORRECTION_TYPE);
+            transaction.setCreatedAt(LocalDateTime.now());
+            corrections.add(transaction);
+        }
+        transactionRepository.saveAll(corrections);
+    }
+
+    private static class Partial {
+        int checked;
+        List<DriftEntry> drifts = new ArrayList<>();
+
+        Partial merge(Partial other) {
+            checked += other.checked;
+            drifts.addAll(other.drifts);
+            return this;
+        }
+    }
+
+    private class RangeTask extends RecursiveTask<Partial> {
+        private final long fromId;
+        private final long toId;
+        private final boolean correct;
+        private final Long location;
+        private final User user;
+
+        RangeTask(long fromId, long toId, boolean correct, Long location, User user) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.correct = correct;
+            this.location = location;
+            this.user = user;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toId - fromId < chunkSize) {
+                return checkRange(fromId, toId, correct, location, user);
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, mid, correct, location, user);
+            RangeTask right = new RangeTask(mid + 1, toId, correct, location, user);
+            left.fork();
+            return right.compute().merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.ReportJobStatus;
+import com.inventory.backend.dto.ReportSpec;
+import com.inventory.backend.model.ReportJob;
+import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.repository.ProductRepository;
+import com.inventory.backend.repository.ReportJobRepository;
+import com.inventory.backend.repository.SaleRepository;
+import com.inventory.backend.repository.UserRepository;
+import com.inventory.backend.web.CsvTableWriter;
+import com.inventory.backend.web.TableWriter;
+import com.inventory.backend.web.XlsxTableWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Server-side report files (CSV / XLSX) built off the request thread.
+ *
+ * Jobs run on a small fixed pool with a bounded queue; when the queue is full the
+ * submit is refused instead of piling up work. Rows are streamed from the database
+ * (and the ledger archive) straight into the file, grouped reports only keep one
+ * running total per group. A finished file is named after its spec plus the data
+ * version of the range (row count and highest id), so asking for the same report
+ * again is served from disk until the underlying data changes.
+ *
+ * Job state is kept in report_jobs, so any instance can answer a status poll. The job
+ * runs on the instance that accepted it; when more than one instance serves traffic,
+ * inventory.reports.directory must be storage they all mount, or downloads 404 on the others.
+ */
+@Service
+public class ReportService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private static final List<String> TYPES = List.of("SALES", "TRANSACTIONS");
+    private static final List<String> GROUPINGS = List.of("NONE", "DAY", "MONTH", "PRODUCT", "CATEGORY");
+    private static final List<String> FORMATS = List.of("CSV", "XLSX");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportJobRepository jobRepository;
+
+    @Autowired
+    private LedgerArchiveService archiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reports.directory:report-cache}")
+    private String directory;
+
+    @Value("${inventory.reports.workers:2}")
+    private int workers;
+
+    @Value("${inventory.reports.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${inventory.reports.retention-hours:168}")
+    private long retentionHours;
+
+    // QUEUED / RUNNING jobs older than this are treated as lost (their instance stopped)
+    @Value("${inventory.reports.abandon-after-minutes:60}")
+    private long abandonAfterMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * SUBMIT
+     * Returns at once: DONE when an identical report over unchanged data is on disk,
+     * the existing job when the same report is already being built, otherwise a new QUEUED job.
+     */
+    public ReportJobStatus submit(ReportSpec request) {
+        ReportSpec spec = normalize(request);
+        String resultKey = hash(spec.cacheKey() + "@" + dataVersion(spec));
+
+        Path cached = file(resultKey, spec.format());
+        if (Files.exists(cached)) {
+            try {
+                // Retention counts from the last use, so the file outlives the job served from it
+                Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ReportJob job = newJob(spec, resultKey);
+            job.setCached(true);
+            job.setRowCount(-1);
+            job.setStatus(DONE);
+            job.setFinishedAt(LocalDateTime.now());
+            return toStatus(jobRepository.save(job));
+        }
+
+        Optional<ReportJob> existing = jobRepository.findFirstByResultKeyAndStatusInAndSubmittedAtAfter(
+                resultKey, List.of(QUEUED, RUNNING), LocalDateTime.now().minusMinutes(abandonAfterMinutes));
+        if (existing.isPresent()) return toStatus(existing.get());
+
+        ReportJob job = jobRepository.save(newJob(spec, resultKey));
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(job);
+            throw new RejectedExecutionException("Report queue is full, try again later.");
+        }
+        return toStatus(job);
+    }
+
+    public Optional<ReportJobStatus> getStatus(String id) {
+        return jobRepository.findById(id).map(this::toStatus);
+    }
+
+    // The finished file of a DONE job
+    public Optional<Path> getResult(String id) {
+        Optional<ReportJob> job = jobRepository.findById(id);
+        if (job.isEmpty() || !DONE.equals(job.get().getStatus())) return Optional.empty();
+        Path file = file(job.get().getResultKey(), job.get().getFormat());
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public static String contentType(String format) {
+        return "XLSX".equals(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv";
+    }
+
+    private void run(ReportJob job) {
+        ReportSpec spec = toSpec(job);
+        job.setStatus(RUNNING);
+        jobRepository.save(job);
+        Path file = file(job.getResultKey(), job.getFormat());
+        Path tmp = file.resolveSibling(file.getFileName() + "." + job.getId() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                TableWriter writer = "XLSX".equals(spec.format())
+                        ? new XlsxTableWriter(out, spec.type().equals("SALES") ? "Sales" : "Inventory Logs")
+                        : new CsvTableWriter(out);
+                try (writer) {
+                    job.setRowCount("SALES".equals(spec.type()) ? writeSales(spec, writer) : writeTransactions(spec, writer));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setStatus(DONE);
+        } catch (Exception e) {
+            job.setStatus(FAILED);
+            String error = String.valueOf(e.getMessage());
+            job.setError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // Swept up by the retention job
+            }
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        }
+    }
+
+    // --- SALES ---
+
+    private long writeSales(ReportSpec spec, TableWriter writer) throws IOException {
+        LocalDateTime from = spec.from().atStartOfDay();
+        LocalDateTime to = spec.to().plusDays(1).atStartOfDay();
+        String groupBy = spec.groupBy();
+
+        if ("NONE".equals(groupBy)) {
+            Map<Long, String> users = userNames();
+            writer.header("Date", "Invoice No", "Cashier", "Payment", "Total (RM)");
+            return streamRows(() -> saleRepository.streamReportRows(from, to), row -> writer.row(
+                    format((LocalDateTime) row[0]), row[1], users.get((Long) row[2]), row[3], row[4]));
+        }
+
+        if ("DAY".equals(groupBy) || "MONTH".equals(groupBy)) {
+            Map<String, double[]> groups = new TreeMap<>();
+            streamRows(() -> saleRepository.streamReportRows(from, to), row -> {
+                double[] totals = groups.computeIfAbsent(period((LocalDateTime) row[0], groupBy), k -> new double[2]);
+                totals[0]++;
+                totals[1] += row[4] == null ? 0 : (Double) row[4];
+            });
+            writer.header("Period", "Sales", "Revenue (RM)");
+            for (Map.Entry<String, double[]> group : groups.entrySet()) {
+                writer.row(group.getKey(), (long) group.getValue()[0], round(group.getValue()[1]));
+            }
+            return groups.size();
+        }
+
+        // PRODUCT / CATEGORY: from the sale lines
+        Map<Long, String[]> products = productNames();
+        Map<String, double[]> groups = new TreeMap<>();
+        streamRows(() -> saleRepository.streamReportLines(from, to), row -> {
+            String[] product = products.getOrDefault((Long) row[1], new String[] {"#" + row[1], null});
+            String label = "PRODUCT".equals(groupBy) ? product[0] + "\t" + nullToEmpty(product[1]) : nullToEmpty(product[1]);
+            int quantity = row[2] == null ? 0 : (Integer) row[2];
+            double[] totals = groups.computeIfAbsent(label, k -> new double[2]);
+            totals[0] += quantity;
+            totals[1] += quantity * (row[3] == null ? 0 : (Double) row[3]);
+        });
+        if ("PRODUCT".equals(groupBy)) {
+            writer.header("Product", "Category", "Units", "Revenue (RM)");
+        } else {
+            writer.header("Category", "Units", "Revenue (RM)");
+        }
+        for (Map.Entry<String, double[]> group : groups.entrySet()) {
+            Object[] label = group.getKey().split("\t", -1);
+            writer.row(concat(label, (long) group.getValue()[0], round(group.getValue()[1])));
+        }
+        return groups.size();
+    }
+
+    // --- TRANSACTIONS (live ledger plus the cold archive) ---
+
+    private long writeTransactions(ReportSpec spec, TableWriter writer) throws IOException {
+        LocalDateTime from = spec.from().atStartOfDay();
+        LocalDateTime to = spec.to().plusDays(1).atStartOfDay();
+        String groupBy = spec.groupBy();
+        Map<Long, String[]> products = productNames();
+
+        if ("NONE".equals(groupBy)) {
+            Map<Long, String> users = userNames();
+            writer.header("Date", "Product", "Type", "Quantity", "Reference", "User");
+            long[] rows = {0};
+            RowHandler handler = row -> {
+                rows[0]++;
+                writer.row(format((LocalDateTime) row[0]), products.getOrDefault((Long) row[1], new String[] {"#" + row[1]})[0],
+                        row[3], row[4], row[5], users.get((Long) row[2]));
+            };
+            scanArchive(from, to, handler);
+            streamRows(() -> transactionRepository.streamReportRows(from, to), handler);
+            return rows[0];
+        }
+
+        // Grouped: units in, units out per period / product / category
+        Map<String, long[]> groups = new TreeMap<>();
+        RowHandler handler = row -> {
+            String[] product = products.getOrDefault((Long) row[1], new String[] {"#" + row[1], null});
+            String label = switch (groupBy) {
+                case "DAY", "MONTH" -> period((LocalDateTime) row[0], groupBy);
+                case "PRODUCT" -> product[0] + "\t" + nullToEmpty(product[1]);
+                default -> nullToEmpty(product[1]);
+            };
+            int quantity = row[4] == null ? 0 : (Integer) row[4];
+            long[] totals = groups.computeIfAbsent(label, k -> new long[2]);
+            if (quantity >= 0) totals[0] += quantity; else totals[1] -= quantity;
+        };
+        scanArchive(from, to, handler);
+        streamRows(() -> transactionRepository.streamReportRows(from, to), handler);
+
+        switch (groupBy) {
+            case "DAY", "MONTH" -> writer.header("Period", "Units In", "Units Out", "Net");
+            case "PRODUCT" -> writer.header("Product", "Category", "Units In", "Units Out", "Net");
+            default -> writer.header("Category", "Units In", "Units Out", "Net");
+        }
+        for (Map.Entry<String, long[]> group : groups.entrySet()) {
+            Object[] label = group.getKey().split("\t", -1);
+            long[] totals = group.getValue();
+            writer.row(concat(label, totals[0], totals[1], totals[0] - totals[1]));
+        }
+        return groups.size();
+    }
+
+    private void scanArchive(LocalDateTime from, LocalDateTime to, RowHandler handler) {
+        archiveService.scan(from, to, row -> {
+            try {
+                handler.accept(new Object[] {row.createdAt(), row.productId(), row.userId(),
+                        row.description(), row.quantity(), row.reference()});
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // --- helpers ---
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(Object[] row) throws IOException;
+    }
+
+    // Runs a streaming query inside a read-only transaction (replica-eligible) and feeds every row to the handler
+    private long streamRows(java.util.function.Supplier<Stream<Object[]>> query, RowHandler handler) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Long count = tx.execute(status -> {
+            long rows = 0;
+            try (Stream<Object[]> stream = query.get()) {
+                Iterator<Object[]> it = stream.iterator();
+                while (it.hasNext()) {
+                    handler.accept(it.next());
+                    rows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private String dataVersion(ReportSpec spec) {
+        LocalDateTime from = spec.from().atStartOfDay();
+        LocalDateTime to = spec.to().plusDays(1).atStartOfDay();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            Object[] row = "SALES".equals(spec.type())
+                    ? saleRepository.findVersionInRange(from, to).get(0)
+                    : transactionRepository.findVersionInRange(from, to).get(0);
+            String version = row[0] + "-" + row[1];
+            // Names and categories appear in every report, so a rename is a new version too
+            if (!"NONE".equals(spec.groupBy()) || "TRANSACTIONS".equals(spec.type())) {
+                version += "-" + namesHash(productRepository.findAllNames());
+            }
+            // Ungrouped reports print the cashier / user on every row
+            if ("NONE".equals(spec.groupBy())) {
+                version += "-" + namesHash(userRepository.findNamesVersion());
+            }
+            return version;
+        });
+    }
+
+    private static String namesHash(List<Object[]> rows) {
+        int names = 1;
+        for (Object[] row : rows) names = 31 * names + Arrays.hashCode(row);
+        return Integer.toHexString(names);
+    }
+
+    private ReportSpec normalize(ReportSpec spec) {
+        if (spec == null) throw new IllegalArgumentException("Report spec is required");
+        String type = upper(spec.type(), null);
+        String groupBy = upper(spec.groupBy(), "NONE");
+        String format = upper(spec.format(), "CSV");
+        if (!TYPES.contains(type)) throw new IllegalArgumentException("type must be one of " + TYPES);
+        if (!GROUPINGS.contains(groupBy)) throw new IllegalArgumentException("groupBy must be one of " + GROUPINGS);
+        if (!FORMATS.contains(format)) throw new IllegalArgumentException("format must be one of " + FORMATS);
+
+        LocalDate to = spec.to() != null ? spec.to() : LocalDate.now();
+        LocalDate from = spec.from() != null ? spec.from() : to.withDayOfMonth(1);
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        return new ReportSpec(type, from, to, groupBy, format);
+    }
+
+    private Map<Long, String[]> productNames() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            Map<Long, String[]> names = new HashMap<>();
+            for (Object[] row : productRepository.findAllNames()) {
+                names.put((Long) row[0], new String[] {(String) row[1], (String) row[2]});
+            }
+            return names;
+        });
+    }
+
+    private Map<Long, String> userNames() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            Map<Long, String> names = new HashMap<>();
+            for (Object[] row : userRepository.findAllNames()) names.put((Long) row[0], (String) row[1]);
+            return names;
+        });
+    }
+
+    private Path file(String resultKey, String format) {
+        return resultDir().resolve(resultKey + "." + format.toLowerCase());
+    }
+
+    private Path resultDir() {
+        try {
+            return Files.createDirectories(Paths.get(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String period(LocalDateTime at, String groupBy) {
+        return "MONTH".equals(groupBy) ? YearMonth.from(at).toString() : at.toLocalDate().toString();
+    }
+
+    private static String format(LocalDateTime at) {
+        return at == null ? null : at.format(DATE_TIME);
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private static String upper(String value, String fallback) {
+        return value == null || value.isBlank() ? fallback : value.trim().toUpperCase();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static Object[] concat(Object[] label, Object... values) {
+        Object[] row = Arrays.copyOf(label, label.length + values.length, Object[].class);
+        System.arraycopy(values, 0, row, label.length, values.length);
+        return row;
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * RETENTION: drop cached files and finished jobs older than the retention window.
+     * The DONE jobs of a file go first, so no job reports a result that is no longer there.
+     */
+    @Scheduled(cron = "${inventory.reports.cleanup-cron:0 15 * * * *}")
+    public void cleanup() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+        try (Stream<Path> files = Files.list(resultDir())) {
+            files.forEach(file -> {
+                try {
+                    if (!Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) return;
+                    // <resultKey>.<format>; leftover .tmp files have no job to drop
+                    String name = file.getFileName().toString();
+                    if (!name.endsWith(".tmp") && name.indexOf('.') > 0) {
+                        jobRepository.deleteDoneByResultKey(name.substring(0, name.indexOf('.')));
+                    }
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.out.println("Could not remove old report " + file + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Report cleanup failed: " + e.getMessage());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.failAbandoned(now.minusMinutes(abandonAfterMinutes), now);
+        jobRepository.deleteFinishedBefore(now.minusHours(retentionHours));
+    }
+
+    private static ReportJob newJob(ReportSpec spec, String resultKey) {
+        ReportJob job = new ReportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(spec.type());
+        job.setFromDate(spec.from());
+        job.setToDate(spec.to());
+        job.setGroupBy(spec.groupBy());
+        job.setFormat(spec.format());
+        job.setResultKey(resultKey);
+        job.setStatus(QUEUED);
+        job.setSubmittedAt(LocalDateTime.now());
+        return job;
+    }
+
+    private static ReportSpec toSpec(ReportJob job) {
+        return new ReportSpec(job.getType(), job.getFromDate(), job.getToDate(), job.getGroupBy(), job.getFormat());
+    }
+
+    private ReportJobStatus toStatus(ReportJob job) {
+        return new ReportJobStatus(job.getId(), job.getStatus(), toSpec(job), job.isCached(), job.getRowCount(),
+                job.getSubmittedAt(), job.getFinishedAt(), job.getError(),
+                DONE.equals(job.getStatus()) ? "/api/reports/" + job.getId() + "/download" : null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.inventory.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out SLS-XXXXX invoice numbers before the sale is inserted (hi/lo style).
+ * A block of numbers is reserved from reference_blocks in its own short transaction,
+ * then handed out from memory with a single atomic increment per sale.
+ * Numbers are unique across restarts and instances; unused numbers of a block
+ * (restart, rolled-back sale) are simply skipped, so gaps are expected.
+ *
+ * Reservations run on a private pool of a couple of connections, not the main one:
+ * the sale that runs out of numbers already holds a main-pool connection, and
+ * under load every main connection can be held by such a sale.
+ */
+@Service
+public class SaleReferenceAllocator {
+
+    public static final String SERIES = "SLS";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${inventory.references.block-size:50}")
+    private int blockSize;
+
+    @Value("${inventory.references.pool-size:2}")
+    private int poolSize;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+    // Created on the first reservation, guarded by this
+    private HikariDataSource pool;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+
+    public String nextReference() {
+        return SERIES + "-" + String.format("%05d", nextNumber());
+    }
+
+    public long nextNumber() {
+        while (true) {
+            Block block = current.get();
+            long number = block.next.getAndIncrement();
+            if (number < block.end) return number;
+
+            // Block used up: one thread reserves the next one, the others wait for it and retry
+            synchronized (this) {
+                if (current.get() == block) {
+                    current.set(reserveBlock());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (pool != null) pool.close();
+    }
+
+    private Block reserveBlock() {
+        if (pool == null) {
+            pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("references");
+            pool.setMaximumPoolSize(poolSize);
+            pool.setMinimumIdle(0);
+            jdbc = new JdbcTemplate(pool);
+            tx = new TransactionTemplate(new DataSourceTransactionManager(pool));
+        }
+        // Own connection and transaction: the reservation commits even if the sale that triggered it rolls back
+        try {
+            return tx.execute(status -> reserveIn());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the series row at the same moment; it exists now
+            return tx.execute(status -> reserveIn());
+        }
+    }
+
+    private Block reserveIn() {
+        // Row lock so two instances reserving at the same moment get different blocks
+        List<Long> next = jdbc.queryForList(
+                "SELECT next_value FROM reference_blocks WHERE series = ? FOR UPDATE", Long.class, SERIES);
+
+        long start;
+        if (next.isEmpty()) {
+            // First run on this database: continue after the old id-based references (SLS-<sale id>)
+            Long maxId = jdbc.queryForObject("SELECT MAX(id) FROM sales", Long.class);
+            start = maxId == null ? 1 : maxId + 1;
+            jdbc.update("INSERT INTO reference_blocks (series, next_value) VALUES (?, ?)", SERIES, start + blockSize);
+        } else {
+            start = next.get(0);
+            jdbc.update("UPDATE reference_blocks SET next_value = ? WHERE series = ?", start + blockSize, SERIES);
+        }
+        return new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Live dashboard counters, fed from the outbox instead of from the checkout transaction.
+ * inventory.activity.units{direction=in|out}, inventory.activity.sales,
+ * inventory.activity.revenue, inventory.activity.purchases, inventory.activity.purchase.spend.
+ * A redelivered batch counts twice - fine for rates on a dashboard, not for accounting.
+ */
+@Service
+public class StockActivityMetrics implements OutboxConsumer {
+
+    private Counter unitsIn;
+    private Counter unitsOut;
+    private Counter sales;
+    private Counter revenue;
+    private Counter purchases;
+    private Counter purchaseSpend;
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        unitsIn = Counter.builder("inventory.activity.units").tag("direction", "in").register(registry);
+        unitsOut = Counter.builder("inventory.activity.units").tag("direction", "out").register(registry);
+        sales = Counter.builder("inventory.activity.sales").register(registry);
+        revenue = Counter.builder("inventory.activity.revenue").register(registry);
+        purchases = Counter.builder("inventory.activity.purchases").register(registry);
+        purchaseSpend = Counter.builder("inventory.activity.purchase.spend").register(registry);
+    }
+
+    @Override
+    public String name() {
+        return "stock-activity-metrics";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            switch (event.getType()) {
+                case OutboxEvent.STOCK_CHANGED -> {
+                    int quantity = event.getQuantity() == null ? 0 : event.getQuantity();
+                    if (quantity > 0) unitsIn.increment(quantity);
+                    else unitsOut.increment(-quantity);
+                }
+                case OutboxEvent.SALE_CREATED -> {
+                    sales.increment();
+                    if (event.getAmount() != null) revenue.increment(event.getAmount());
+                }
+                case OutboxEvent.PURCHASE_RECEIVED -> {
+                    purchases.increment();
+                    if (event.getAmount() != null) purchaseSpend.increment(event.getAmount());
+                }
+                default -> { }
+            }
+        }
+    }
+}
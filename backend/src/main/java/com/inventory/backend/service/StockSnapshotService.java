@@ -0,0 +1,133 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.StockLevel;
+import com.inventory.backend.model.StockSnapshot;
+import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Periodic per-product stock snapshots so historical stock questions
+ * only replay the ledger rows written since the nearest snapshot.
+ */
+@Service
+public class StockSnapshotService {
+
+    @Autowired
+    private StockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerArchiveService archiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.snapshots.daily-retention-days:60}")
+    private int dailyRetentionDays;
+
+    /**
+     * NIGHTLY JOB
+     * Snapshots the ledger as of today's midnight. The first of the month is
+     * flagged MONTH_END (it closes the previous month) and is never pruned.
+     * Every instance runs it; the unique key lets exactly one of them write.
+     */
+    @Scheduled(cron = "${inventory.snapshots.cron:0 5 0 * * *}")
+    public void takeNightlySnapshot() {
+        takeSnapshot(LocalDate.now().atStartOfDay());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            snapshotRepository.deleteDailyBefore(LocalDate.now().minusDays(dailyRetentionDays).atStartOfDay()));
+    }
+
+    /**
+     * Builds the snapshot at the cutoff from the previous snapshot plus the
+     * ledger delta since then. Does nothing if one already exists, including
+     * one that another instance is writing at the same moment: the existence
+     * check is only a shortcut, the (snapshot_at, product_id) key decides.
+     */
+    public int takeSnapshot(LocalDateTime cutoff) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            return tx.execute(status -> writeSnapshot(cutoff));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance took this snapshot first; its rows win, ours were rolled back
+            return 0;
+        }
+    }
+
+    private int writeSnapshot(LocalDateTime cutoff) {
+        if (snapshotRepository.existsBySnapshotAt(cutoff)) return 0;
+
+        Map<Long, Long> levels = levelsAt(cutoff);
+        String kind = cutoff.toLocalDate().getDayOfMonth() == 1 && cutoff.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? "MONTH_END" : "DAILY";
+
+        List<StockSnapshot> rows = new ArrayList<>();
+        levels.forEach((productId, quantity) -> {
+            if (quantity == 0) return;
+            StockSnapshot snapshot = new StockSnapshot();
+            snapshot.setProductId(productId);
+            snapshot.setSnapshotAt(cutoff);
+            snapshot.setKind(kind);
+            snapshot.setQuantity(quantity.intValue());
+            rows.add(snapshot);
+        });
+
+        // Flush here so a duplicate key surfaces inside takeSnapshot's try
+        snapshotRepository.saveAllAndFlush(rows);
+        return rows.size();
+    }
+
+    /**
+     * AS-OF QUERY
+     * Stock of every product from all movements strictly before the given moment
+     * (ask for 2026-04-01T00:00 to get the close of March 31st).
+     */
+    @Transactional(readOnly = true)
+    public List<StockLevel> getStockAsOf(LocalDateTime at) {
+        List<StockLevel> result = new ArrayList<>();
+        levelsAt(at).forEach((productId, quantity) -> result.add(new StockLevel(productId, quantity)));
+        return result;
+    }
+
+    // Nearest snapshot at or before the moment, plus the ledger rows in between.
+    // Carry-forward rows are skipped; the archived originals are read instead.
+    private Map<Long, Long> levelsAt(LocalDateTime at) {
+        Map<Long, Long> levels = new TreeMap<>();
+        LocalDateTime base = snapshotRepository.findLatestSnapshotTime(at);
+
+        List<Object[]> delta;
+        if (base == null) {
+            delta = transactionRepository.sumQuantityByProductBefore(at);
+        } else {
+            for (StockSnapshot s : snapshotRepository.findBySnapshotAt(base)) {
+                levels.put(s.getProductId(), s.getQuantity().longValue());
+            }
+            delta = transactionRepository.sumQuantityByProductBetween(base, at);
+        }
+
+        for (Object[] row : delta) {
+            if (row[0] == null || row[1] == null) continue;
+            levels.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+        archiveService.sumByProduct(base, at).forEach((productId, quantity) -> levels.merge(productId, quantity, Long::sum));
+        return levels;
+    }
+}
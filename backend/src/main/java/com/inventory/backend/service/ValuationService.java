@@ -0,0 +1,344 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.dto.CogsSummary;
+import com.inventory.backend.dto.ProductValuation;
+import com.inventory.backend.dto.ValuationReport;
+import com.inventory.backend.model.CostLayer;
+import com.inventory.backend.model.ProductCost;
+import com.inventory.backend.model.ValuationEntry;
+import com.inventory.backend.repository.CostLayerRepository;
+import com.inventory.backend.repository.InventoryTransactionRepository;
+import com.inventory.backend.repository.ProductCostRepository;
+import com.inventory.backend.repository.PurchaseRepository;
+import com.inventory.backend.repository.SaleRepository;
+import com.inventory.backend.repository.ValuationEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps per-product cost layers and a running weighted-average cost.
+ * Purchases add a layer, sales consume the oldest layers first, and every other
+ * ledger movement (opening stock, restocks, adjustments) moves stock at the
+ * current average cost. All are applied as they commit, so valuation and COGS
+ * never need a history replay.
+ */
+@Service
+public class ValuationService {
+
+    @Autowired
+    private ProductCostRepository productCostRepository;
+
+    @Autowired
+    private CostLayerRepository costLayerRepository;
+
+    @Autowired
+    private ValuationEntryRepository valuationEntryRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerArchiveService archiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 0 = one worker per core (keep it below the connection pool size)
+    @Value("${inventory.valuation.rebuild-parallelism:0}")
+    private int rebuildParallelism;
+
+    /**
+     * Called by PurchaseController in the purchase transaction.
+     */
+    @Transactional
+    public void recordReceipt(Long productId, int quantity, double unitCost, String reference, LocalDateTime at) {
+        if (productId == null || quantity <= 0) return;
+
+        ProductCost cost = lockCost(productId);
+        CostLayer layer = newLayer(productId, quantity, unitCost, reference, at);
+        ValuationEntry entry = applyReceipt(cost, layer, "RECEIPT");
+
+        costLayerRepository.save(layer);
+        productCostRepository.save(cost);
+        valuationEntryRepository.save(entry);
+    }
+
+    /**
+     * Called by SaleController for every sold line, in the sale transaction.
+     */
+    @Transactional
+    public void recordIssue(Long productId, int quantity, String reference, LocalDateTime at) {
+        if (productId == null || quantity <= 0) return;
+
+        ProductCost cost = lockCost(productId);
+        List<CostLayer> openLayers = costLayerRepository.findOpenLayers(productId);
+        ValuationEntry entry = applyIssue(cost, openLayers, quantity, reference, at, "ISSUE");
+
+        costLayerRepository.saveAll(openLayers);
+        productCostRepository.save(cost);
+        valuationEntryRepository.save(entry);
+    }
+
+    /**
+     * Called by ProductService.updateStock for every ledger movement.
+     * Sales and purchases are costed by their callers (they know the sale time and
+     * purchase price); anything else is booked here at the current average cost,
+     * so PATCH/PUT quantity edits and opening stock keep the cost position on the shelf.
+     */
+    @Transactional
+    public void recordMovement(Long productId, int change, String type, String reference, LocalDateTime at) {
+        if (productId == null || change == 0 || !isAdjustment(type)) return;
+
+        ProductCost cost = lockCost(productId);
+        ValuationEntry entry;
+        if (change > 0) {
+            CostLayer layer = newLayer(productId, change, cost.getAverageUnitCost(), reference, at);
+            entry = applyReceipt(cost, layer, "ADJUSTMENT");
+            costLayerRepository.save(layer);
+        } else {
+            List<CostLayer> openLayers = costLayerRepository.findOpenLayers(productId);
+            entry = applyIssue(cost, openLayers, -change, reference, at, "ADJUSTMENT");
+            costLayerRepository.saveAll(openLayers);
+        }
+        productCostRepository.save(cost);
+        valuationEntryRepository.save(entry);
+    }
+
+    // Same split as InventoryTransactionRepository.VALUATION_ADJUSTMENT, which the rebuild replays
+    static boolean isAdjustment(String type) {
+        return type != null && !type.equals("SALE") && !type.startsWith("PURCHASE")
+            && !type.startsWith("TRANSFER") && !type.equals(LedgerArchiveService.CARRY_FORWARD_TYPE)
+            && !type.equals(ReconciliationService.CORRECTION_TYPE);
+    }
+
+    // Upsert-then-lock: two first movements of a new product both end up on the same row
+    private ProductCost lockCost(Long productId) {
+        productCostRepository.insertIfMissing(productId);
+        return productCostRepository.findForUpdate(productId)
+            .orElseThrow(() -> new RuntimeException("Cost position missing for product " + productId));
+    }
+
+    /**
+     * POINT-IN-TIME VALUATION
+     * Uses the last journal row of each product at or before the given moment.
+     */
+    @Transactional(readOnly = true)
+    public ValuationReport getValuation(LocalDateTime at) {
+        List<ProductValuation> lines = new ArrayList<>();
+        double totalAverage = 0;
+        double totalFifo = 0;
+
+        for (ValuationEntry e : valuationEntryRepository.findPositionsAt(at)) {
+            double averageValue = e.getQuantityAfter() * e.getAverageUnitCost();
+            lines.add(new ProductValuation(e.getProductId(), e.getQuantityAfter(),
+                    e.getAverageUnitCost(), averageValue, e.getFifoValueAfter()));
+            totalAverage += averageValue;
+            totalFifo += e.getFifoValueAfter();
+        }
+        return new ValuationReport(at, totalAverage, totalFifo, lines);
+    }
+
+    @Transactional(readOnly = true)
+    public CogsSummary getCogs(LocalDateTime from, LocalDateTime to) {
+        Object[] sums = valuationEntryRepository.sumCogs(from, to).get(0);
+        return new CogsSummary(from, to, ((Number) sums[0]).doubleValue(), ((Number) sums[1]).doubleValue());
+    }
+
+    /**
+     * FULL REBUILD (recovery)
+     * Replays purchases, sale_items and the adjustment rows of the ledger, including the
+     * ones already moved to the ledger archive (read once up front, adjustments only, and
+     * held in memory for the run; no archive run may start meanwhile). There is no global wipe: each product is rebuilt in its own transaction
+     * that first takes the product's cost-row lock (the same one live receipts
+     * and issues take), then clears and replays only that product. A sale that
+     * arrives mid-rebuild waits for the lock and is applied on top of the
+     * replayed position, so the tills can stay open.
+     */
+    public Map<String, Object> rebuild() {
+        return archiveService.withoutArchiving(this::rebuildAll);
+    }
+
+    private Map<String, Object> rebuildAll() {
+        long started = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Archived adjustment rows by product; the live ledger only has their CARRY_FORWARD sum
+        Map<Long, List<Movement>> archived = new HashMap<>();
+        Set<Long> archivedIds = new HashSet<>();
+        archiveService.scan(null, null, row -> {
+            if (row.productId() == null || row.quantity() == null || row.quantity() == 0
+                    || !isAdjustment(row.description())) return;
+            archived.computeIfAbsent(row.productId(), id -> new ArrayList<>())
+                    .add(new Movement(row.createdAt(), row.quantity(), null, row.reference(), "ADJUSTMENT"));
+            archivedIds.add(row.id());
+        });
+
+        Set<Long> productIds = new TreeSet<>(purchaseRepository.findPurchasedProductIds());
+        productIds.addAll(saleRepository.findSoldProductIds());
+        productIds.addAll(transactionRepository.findAdjustedProductIds());
+        productIds.addAll(productCostRepository.findAllProductIds());
+        productIds.addAll(archived.keySet());
+
+        int parallelism = rebuildParallelism > 0 ? rebuildParallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> productIds.parallelStream()
+                    .forEach(id -> tx.executeWithoutResult(status ->
+                            rebuildProduct(id, archived.getOrDefault(id, List.of()), archivedIds))))
+                .get();
+        } catch (Exception e) {
+            throw new RuntimeException("Valuation rebuild failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("products", productIds.size());
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private void rebuildProduct(Long productId, List<Movement> archivedAdjustments, Set<Long> archivedIds) {
+        // Lock first, so the replay reads everything committed before the lock was granted
+        ProductCost cost = lockCost(productId);
+        costLayerRepository.deleteForProduct(productId);
+        valuationEntryRepository.deleteForProduct(productId);
+        cost.setQuantityOnHand(0);
+        cost.setAverageUnitCost(0);
+        cost.setFifoValue(0);
+        cost.setUpdatedAt(null);
+
+        List<Movement> movements = new ArrayList<>();
+        for (Object[] row : purchaseRepository.findReceiptsByProduct(productId)) {
+            Integer quantity = (Integer) row[0];
+            if (quantity == null || quantity <= 0 || row[1] == null) continue;
+            movements.add(new Movement((LocalDateTime) row[2], quantity, (Double) row[1], (String) row[3], "RECEIPT"));
+        }
+        for (Object[] row : saleRepository.findIssuesByProduct(productId)) {
+            Integer quantity = (Integer) row[0];
+            if (quantity == null || quantity <= 0) continue;
+            movements.add(new Movement((LocalDateTime) row[1], -quantity, null, (String) row[2], "ISSUE"));
+        }
+        movements.addAll(archivedAdjustments);
+        for (Object[] row : transactionRepository.findAdjustmentsByProduct(productId)) {
+            Integer quantity = (Integer) row[0];
+            // A row that is both live and in a file (e.g. a recovered pending file) counts once
+            if (quantity == null || quantity == 0 || archivedIds.contains((Long) row[3])) continue;
+            movements.add(new Movement((LocalDateTime) row[1], quantity, null, (String) row[2], "ADJUSTMENT"));
+        }
+        // By time; stock coming in wins ties so same-moment issues can be costed (sort is stable)
+        movements.sort(Comparator.comparing(Movement::at, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(m -> m.quantity() < 0));
+
+        Deque<CostLayer> openLayers = new ArrayDeque<>();
+        List<CostLayer> allLayers = new ArrayList<>();
+        List<ValuationEntry> entries = new ArrayList<>();
+
+        for (Movement m : movements) {
+            if (m.quantity() > 0) {
+                double unitCost = m.unitCost() != null ? m.unitCost() : cost.getAverageUnitCost();
+                CostLayer layer = newLayer(productId, m.quantity(), unitCost, m.reference(), m.at());
+                entries.add(applyReceipt(cost, layer, m.type()));
+                openLayers.addLast(layer);
+                allLayers.add(layer);
+            } else {
+                entries.add(applyIssue(cost, openLayers, -m.quantity(), m.reference(), m.at(), m.type()));
+                while (!openLayers.isEmpty() && openLayers.peekFirst().getRemainingQuantity() == 0) {
+                    openLayers.pollFirst();
+                }
+            }
+        }
+
+        costLayerRepository.saveAll(allLayers);
+        valuationEntryRepository.saveAll(entries);
+        productCostRepository.save(cost);
+    }
+
+    // One replayed movement; unitCost is only known for purchase receipts
+    private record Movement(LocalDateTime at, int quantity, Double unitCost, String reference, String type) {}
+
+    private ValuationEntry applyReceipt(ProductCost cost, CostLayer layer, String type) {
+        long oldQuantity = cost.getQuantityOnHand();
+        long newQuantity = oldQuantity + layer.getOriginalQuantity();
+        double amount = layer.getOriginalQuantity() * layer.getUnitCost();
+
+        cost.setAverageUnitCost((oldQuantity * cost.getAverageUnitCost() + amount) / newQuantity);
+        cost.setQuantityOnHand(newQuantity);
+        cost.setFifoValue(cost.getFifoValue() + amount);
+        cost.setUpdatedAt(notBefore(layer.getReceivedAt(), cost.getUpdatedAt()));
+
+        return newEntry(cost, type, layer.getReference(), layer.getOriginalQuantity(), amount, amount);
+    }
+
+    private ValuationEntry applyIssue(ProductCost cost, Collection<CostLayer> openLayers, int quantity,
+                                      String reference, LocalDateTime at, String type) {
+        int remaining = quantity;
+        double fifoAmount = 0;
+
+        for (CostLayer layer : openLayers) {
+            if (remaining == 0) break;
+            int take = Math.min(layer.getRemainingQuantity(), remaining);
+            layer.setRemainingQuantity(layer.getRemainingQuantity() - take);
+            fifoAmount += take * layer.getUnitCost();
+            remaining -= take;
+        }
+
+        // Stock that never came through a purchase (e.g. INITIAL_STOCK) is costed at the average
+        fifoAmount += remaining * cost.getAverageUnitCost();
+        double averageAmount = quantity * cost.getAverageUnitCost();
+
+        long newQuantity = Math.max(0, cost.getQuantityOnHand() - quantity);
+        cost.setQuantityOnHand(newQuantity);
+        cost.setFifoValue(newQuantity == 0 ? 0 : Math.max(0, cost.getFifoValue() - fifoAmount));
+        cost.setUpdatedAt(notBefore(at, cost.getUpdatedAt()));
+
+        return newEntry(cost, type, reference, -quantity, -fifoAmount, -averageAmount);
+    }
+
+    // Entries are dated from the cost row, which is locked while they are written, so a
+    // product's journal never goes back in time (findPositionsAt takes the highest id)
+    private static LocalDateTime notBefore(LocalDateTime at, LocalDateTime previous) {
+        return at == null || (previous != null && at.isBefore(previous)) ? previous : at;
+    }
+
+    private ValuationEntry newEntry(ProductCost cost, String type, String reference, int quantity,
+                                    double fifoAmount, double averageAmount) {
+        ValuationEntry entry = new ValuationEntry();
+        entry.setProductId(cost.getProductId());
+        entry.setEntryType(type);
+        entry.setReference(reference);
+        entry.setQuantity(quantity);
+        entry.setFifoAmount(fifoAmount);
+        entry.setAverageAmount(averageAmount);
+        entry.setQuantityAfter(cost.getQuantityOnHand());
+        entry.setAverageUnitCost(cost.getAverageUnitCost());
+        entry.setFifoValueAfter(cost.getFifoValue());
+        entry.setCreatedAt(cost.getUpdatedAt());
+        return entry;
+    }
+
+    private CostLayer newLayer(Long productId, int quantity, double unitCost, String reference, LocalDateTime at) {
+        CostLayer layer = new CostLayer();
+        layer.setProductId(productId);
+        layer.setReference(reference);
+        layer.setUnitCost(unitCost);
+        layer.setOriginalQuantity(quantity);
+        layer.setRemainingQuantity(quantity);
+        layer.setReceivedAt(at);
+        return layer;
+    }
+}
@@ -0,0 +1,47 @@
+package com.inventory.backend.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Opt-in compact encoding for the big list endpoints.
+ * Clients ask for it with "Accept: application/vnd.inventory.columnar+json";
+ * everyone else keeps getting the usual array of objects.
+ *
+ *   {"format": "columnar-v2", "tables": {"products": {...ColumnarTable...}}}
+ *
+ * v2 sends each row as an array (field names once per table, repeated strings
+ * as dictionary indexes) so rows can be written as they are read; v1 sent one
+ * array per column and had to hold the whole result first.
+ */
+public final class ColumnarJson {
+
+    public static final String MEDIA_TYPE = "application/vnd.inventory.columnar+json";
+    public static final String FORMAT = "columnar-v2";
+
+    private ColumnarJson() {
+    }
+
+    public static void write(HttpServletResponse response, ObjectMapper mapper, Map<String, ColumnarTable> tables)
+            throws IOException {
+        response.setContentType(MEDIA_TYPE);
+        response.setCharacterEncoding("UTF-8");
+
+        // Streams straight into the servlet output; each table reads its rows while it is written
+        try (JsonGenerator gen = mapper.createGenerator(response.getOutputStream())) {
+            gen.writeStartObject();
+            gen.writeStringField("format", FORMAT);
+            gen.writeObjectFieldStart("tables");
+            for (Map.Entry<String, ColumnarTable> table : tables.entrySet()) {
+                gen.writeFieldName(table.getKey());
+                table.getValue().write(gen);
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+}
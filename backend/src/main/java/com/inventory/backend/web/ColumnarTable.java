@@ -0,0 +1,94 @@
+package com.inventory.backend.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the rows of a scalar projection query as
+ *
+ *   {"columns": ["id", "category"], "rows": [[1, 0], [2, 1], [3, 0]], "rowCount": 3,
+ *    "dictionaries": {"category": ["Drinks", "Snacks"]}}
+ *
+ * Rows go to the generator as they come off the stream; nothing but the
+ * dictionaries (one entry per distinct value) is kept. Columns marked as
+ * dictionary columns hold indexes in order of first appearance, so the
+ * dictionaries can only be written after the last row.
+ */
+public class ColumnarTable {
+
+    private final String[] names;
+    private final Map<Integer, Map<String, Integer>> dictionaries = new LinkedHashMap<>();
+    private Supplier<Stream<Object[]>> source = Stream::empty;
+
+    public ColumnarTable(String... names) {
+        this.names = names;
+    }
+
+    public ColumnarTable dictionary(String... dictionaryColumns) {
+        for (String name : dictionaryColumns) {
+            int index = Arrays.asList(names).indexOf(name);
+            if (index < 0) throw new IllegalArgumentException("Unknown column: " + name);
+            dictionaries.put(index, new LinkedHashMap<>());
+        }
+        return this;
+    }
+
+    // Opened while the table is written, so it must run inside the caller's transaction
+    public ColumnarTable from(Supplier<Stream<Object[]>> rows) {
+        this.source = rows;
+        return this;
+    }
+
+    void write(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+
+        gen.writeArrayFieldStart("columns");
+        for (String name : names) {
+            gen.writeString(name);
+        }
+        gen.writeEndArray();
+
+        long count = 0;
+        gen.writeArrayFieldStart("rows");
+        try (Stream<Object[]> rows = source.get()) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                writeRow(gen, it.next());
+                count++;
+            }
+        }
+        gen.writeEndArray();
+        gen.writeNumberField("rowCount", count);
+
+        gen.writeObjectFieldStart("dictionaries");
+        for (Map.Entry<Integer, Map<String, Integer>> entry : dictionaries.entrySet()) {
+            gen.writeArrayFieldStart(names[entry.getKey()]);
+            // LinkedHashMap keeps insertion order, which is the index order
+            for (String value : entry.getValue().keySet()) {
+                gen.writeString(value);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    private void writeRow(JsonGenerator gen, Object[] values) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < names.length; i++) {
+            Object value = i < values.length ? values[i] : null;
+            Map<String, Integer> dictionary = dictionaries.get(i);
+            if (dictionary != null && value != null) {
+                gen.writeNumber(dictionary.computeIfAbsent(value.toString(), key -> dictionary.size()));
+            } else {
+                gen.writeObject(value);
+            }
+        }
+        gen.writeEndArray();
+    }
+}
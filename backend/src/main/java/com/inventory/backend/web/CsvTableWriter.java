@@ -0,0 +1,45 @@
+package com.inventory.backend.web;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV with a UTF-8 BOM so Excel picks the right encoding.
+ */
+public class CsvTableWriter implements TableWriter {
+
+    private final Writer out;
+
+    public CsvTableWriter(OutputStream stream) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        out.write('\uFEFF');
+    }
+
+    @Override
+    public void header(String... names) throws IOException {
+        row((Object[]) names);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            out.write(escape(values[i]));
+        }
+        out.write("\r\n");
+    }
+
+    private String escape(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
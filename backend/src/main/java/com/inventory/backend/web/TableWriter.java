@@ -0,0 +1,14 @@
+package com.inventory.backend.web;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Row-at-a-time writer for report files, so a report never holds its rows in memory.
+ */
+public interface TableWriter extends Closeable {
+
+    void header(String... names) throws IOException;
+
+    void row(Object... values) throws IOException;
+}
@@ -0,0 +1,78 @@
+package com.inventory.backend;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time from launch to the first answered product list request, for the regular and the
+ * fast-start profile. Not part of the default build (tagged "benchmark"); run it with
+ * "mvn -Pstartup-benchmark test"; the timings are written to target/startup-benchmark.properties.
+ * It only fails when a boot does not answer: wall-clock numbers from a shared CI machine
+ * are compared by people, not asserted.
+ */
+@Tag("benchmark")
+class StartupBenchmarkTests {
+
+	private static final Path RESULTS = Path.of("target", "startup-benchmark.properties");
+
+	private static final String DB = "jdbc:h2:mem:startup_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Test
+	void timeToFirstRequest() throws Exception {
+		// Warm-up boot: creates the schema and loads the classes, so both timed boots start equal
+		timeToFirstRequest("default", "--spring.jpa.hibernate.ddl-auto=create");
+		// H2 creates LONGTEXT as VARCHAR; give the column the CLOB type MySQL reports, so the
+		// fast-start profile can run its own "validate" unchanged
+		try (Connection connection = DriverManager.getConnection(DB, "sa", "");
+			 Statement statement = connection.createStatement()) {
+			statement.execute("ALTER TABLE products ALTER COLUMN image_url CLOB");
+		}
+
+		// Best of three alternating boots each, to keep scheduler noise out of the comparison
+		long regular = Long.MAX_VALUE, fastStart = Long.MAX_VALUE;
+		for (int round = 0; round < 3; round++) {
+			// "update" as in the main application.properties (the test one drops the schema on close)
+			regular = Math.min(regular, timeToFirstRequest("default", "--spring.jpa.hibernate.ddl-auto=update"));
+			fastStart = Math.min(fastStart, timeToFirstRequest("fast-start"));
+		}
+
+		Files.writeString(RESULTS, "regular-ms=" + regular + "\nfast-start-ms=" + fastStart + "\n");
+	}
+
+	private long timeToFirstRequest(String profile, String... args) throws Exception {
+		long started = System.nanoTime();
+		// As arguments: default properties would lose to the test application.properties.
+		// A list is bound from one source only, so the replica entry is given in full.
+		String[] arguments = Stream.concat(Stream.of("--server.port=0", "--spring.datasource.url=" + DB,
+				"--inventory.datasource.replicas[0].url=" + DB, "--inventory.datasource.replicas[0].username=sa",
+				"--inventory.datasource.replicas[0].password="), Stream.of(args)).toArray(String[]::new);
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+				.profiles(profile)
+				.run(arguments)) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			HttpResponse<String> response = HttpClient.newHttpClient().send(
+					HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products")).build(),
+					HttpResponse.BodyHandlers.ofString());
+			long elapsed = (System.nanoTime() - started) / 1_000_000;
+
+			assertEquals(200, response.statusCode());
+			return elapsed;
+		}
+	}
+}
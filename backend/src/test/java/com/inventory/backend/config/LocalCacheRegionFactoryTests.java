@@ -0,0 +1,45 @@
+package com.inventory.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalCacheRegionFactoryTests {
+
+	@Test
+	void dropsTheLeastRecentlyUsedEntryOverTheCap() {
+		LocalCacheRegionFactory.Storage storage = new LocalCacheRegionFactory.Storage(2, 0);
+		storage.putIntoCache("a", 1, null);
+		storage.putIntoCache("b", 2, null);
+		storage.getFromCache("a", null);
+		storage.putIntoCache("c", 3, null);
+
+		assertEquals(1, storage.getFromCache("a", null));
+		assertNull(storage.getFromCache("b", null));
+		assertEquals(3, storage.getFromCache("c", null));
+		assertEquals(1, storage.evictions.sum());
+	}
+
+	@Test
+	void expiredEntriesAreMisses() throws InterruptedException {
+		LocalCacheRegionFactory.Storage storage = new LocalCacheRegionFactory.Storage(0, 1);
+		storage.putIntoCache("a", 1, null);
+		Thread.sleep(5);
+
+		assertNull(storage.getFromCache("a", null));
+		assertEquals(0, storage.size());
+	}
+
+	@Test
+	void reportsTheHitRatio() {
+		LocalCacheRegionFactory.Storage storage = new LocalCacheRegionFactory.Storage(0, 0);
+		storage.putIntoCache("a", 1, null);
+		storage.getFromCache("a", null);
+		storage.getFromCache("a", null);
+		storage.getFromCache("a", null);
+		storage.getFromCache("b", null);
+
+		assertEquals(0.75, storage.hitRatio());
+	}
+}
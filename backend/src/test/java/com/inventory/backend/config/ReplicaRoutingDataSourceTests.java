@@ -0,0 +1,80 @@
+package com.inventory.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTests {
+
+	private DataSource primary;
+	private DataSource replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = embedded("routing_primary");
+		replica = embedded("routing_replica");
+		markInstance(primary, "primary");
+		markInstance(replica, "replica");
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), 0);
+		JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+		assertEquals("replica", read(jdbc, routing, true));
+		assertEquals("primary", read(jdbc, routing, false));
+	}
+
+	@Test
+	void readsStayOnThePrimaryRightAfterAWrite() {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), 60_000);
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+		assertEquals("replica", read(jdbc, routing, true));
+
+		TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		write.executeWithoutResult(status -> jdbc.update("UPDATE marker SET name = name"));
+
+		assertEquals("primary", read(jdbc, routing, true));
+		assertEquals(1, routing.getPinnedReads());
+	}
+
+	@Test
+	void unavailableReplicaFallsBackToThePrimary() {
+		DataSource broken = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/nowhere", "sa", "");
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(broken), 0);
+		JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+		assertEquals("primary", read(jdbc, routing, true));
+		assertEquals(1, routing.getFallbacks());
+	}
+
+	private String read(JdbcTemplate jdbc, ReplicaRoutingDataSource routing, boolean readOnly) {
+		TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+		tx.setReadOnly(readOnly);
+		return tx.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+	}
+
+	private static DataSource embedded(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+
+	private static void markInstance(DataSource dataSource, String name) {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+		jdbc.update("DELETE FROM marker");
+		jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+	}
+}
@@ -0,0 +1,50 @@
+package com.inventory.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void admitsTheBurstThenAsksToWaitOneInterval() {
+		TokenBucket bucket = new TokenBucket(2, 3);
+		long now = 10 * SECOND;
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(now));
+		}
+		assertEquals(SECOND / 2, bucket.tryAcquire(now));
+	}
+
+	@Test
+	void refillsAtTheConfiguredRate() {
+		TokenBucket bucket = new TokenBucket(2, 1);
+		long now = 10 * SECOND;
+
+		assertEquals(0, bucket.tryAcquire(now));
+		assertTrue(bucket.tryAcquire(now) > 0);
+		assertEquals(0, bucket.tryAcquire(now + SECOND / 2));
+	}
+
+	@Test
+	void becomesIdleOnceFullyRefilled() {
+		TokenBucket bucket = new TokenBucket(1, 5);
+		long now = 10 * SECOND;
+
+		assertTrue(bucket.isIdle(now));
+		bucket.tryAcquire(now);
+		assertFalse(bucket.isIdle(now));
+		assertTrue(bucket.isIdle(now + SECOND));
+	}
+
+	@Test
+	void rejectsARateOfZero() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5));
+	}
+}
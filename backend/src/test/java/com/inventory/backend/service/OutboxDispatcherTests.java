@@ -0,0 +1,112 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.model.OutboxEvent;
+import com.inventory.backend.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"inventory.outbox.poll-interval-ms=3600000",
+		"inventory.outbox.gap-timeout-ms=1000"
+})
+class OutboxDispatcherTests {
+
+	@Autowired
+	private OutboxDispatcher dispatcher;
+
+	@Autowired
+	private OutboxEventRepository eventRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RecordingConsumer recorder;
+
+	@Test
+	void eventCommittedAfterTheGapTimeoutIsStillDelivered() throws Exception {
+		CountDownLatch inserted = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		// A slow checkout: its event gets an id first but commits last
+		CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+			Long id = eventRepository.saveAndFlush(event(LocalDateTime.now())).getId();
+			inserted.countDown();
+			await(commit);
+			return id;
+		}));
+		assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+		// A later event, already older than the gap timeout, so delivery moves past the hole
+		long later = eventRepository.save(event(LocalDateTime.now().minusMinutes(1))).getId();
+		dispatcher.dispatch();
+		assertTrue(recorder.ids.contains(later));
+
+		commit.countDown();
+		long late = slow.get(10, TimeUnit.SECONDS);
+		assertTrue(late < later);
+		assertFalse(recorder.ids.contains(late));
+
+		dispatcher.dispatch();
+		assertTrue(recorder.ids.contains(late));
+
+		// The hole is closed once the event is delivered
+		dispatcher.dispatch();
+		assertEquals(1, recorder.ids.stream().filter(id -> id == late).count());
+	}
+
+	private static OutboxEvent event(LocalDateTime createdAt) {
+		OutboxEvent event = new OutboxEvent();
+		event.setType(OutboxEvent.STOCK_CHANGED);
+		event.setQuantity(1);
+		event.setCreatedAt(createdAt);
+		return event;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	static class RecordingConsumer implements OutboxConsumer {
+		final List<Long> ids = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String name() {
+			return "test-recorder";
+		}
+
+		@Override
+		public void accept(List<OutboxEvent> events) {
+			events.forEach(event -> ids.add(event.getId()));
+		}
+	}
+
+	@TestConfiguration
+	static class Consumers {
+		@Bean
+		RecordingConsumer recordingConsumer() {
+			return new RecordingConsumer();
+		}
+	}
+}
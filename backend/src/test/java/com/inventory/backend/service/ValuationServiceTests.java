@@ -0,0 +1,91 @@
+package com.inventory.backend.service;
+
+import com.inventory.backend.controller.PurchaseController;
+import com.inventory.backend.model.Product;
+import com.inventory.backend.model.ProductCost;
+import com.inventory.backend.model.Purchase;
+import com.inventory.backend.repository.ProductCostRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "inventory.archive.directory=target/valuation-archive")
+class ValuationServiceTests {
+
+	@Autowired
+	private ValuationService valuationService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private PurchaseController purchaseController;
+
+	@Autowired
+	private LedgerArchiveService archiveService;
+
+	@Autowired
+	private ProductCostRepository costRepository;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@BeforeAll
+	static void clearArchive() throws IOException {
+		FileSystemUtils.deleteRecursively(Path.of("target", "valuation-archive"));
+	}
+
+	@Test
+	void rebuildAfterArchivingMatchesTheIncrementalPosition() {
+		Product product = new Product();
+		product.setName("valuation-" + System.nanoTime());
+		product.setPrice(9.0);
+		product.setActive(true);
+		Long id = productService.saveOrUpdateProduct(product).getId();
+
+		// Receipts at different costs with restocks and a write-off between them, so the
+		// average and the FIFO layers both depend on the adjustments being replayed in place
+		purchase(id, 10, 2.0);
+		productService.updateStock(id, 5, "RESTOCK");
+		purchase(id, 10, 4.0);
+		productService.updateStock(id, -8, "ADJUSTMENT");
+		purchase(id, 4, 7.0);
+		ProductCost incremental = costRepository.findById(id).orElseThrow();
+
+		// Move the whole history past the archive horizon, keeping its order
+		jdbc.update("UPDATE inventory_transactions SET created_at = DATEADD('DAY', -400, created_at) WHERE item_id = ?", id);
+		jdbc.update("UPDATE purchases SET created_at = DATEADD('DAY', -400, created_at) WHERE product_id = ?", id);
+		Map<String, Object> archived = archiveService.archive();
+		assertTrue(((Number) archived.get("rowsArchived")).longValue() >= 5);
+		assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM inventory_transactions " +
+				"WHERE item_id = ? AND description = 'RESTOCK'", Integer.class, id));
+
+		valuationService.rebuild();
+		ProductCost rebuilt = costRepository.findById(id).orElseThrow();
+
+		assertEquals(incremental.getQuantityOnHand(), rebuilt.getQuantityOnHand());
+		assertEquals(incremental.getAverageUnitCost(), rebuilt.getAverageUnitCost(), 1e-9);
+		assertEquals(incremental.getFifoValue(), rebuilt.getFifoValue(), 1e-9);
+	}
+
+	private void purchase(Long productId, int quantity, double unitPrice) {
+		Product product = new Product();
+		product.setId(productId);
+		Purchase purchase = new Purchase();
+		purchase.setProduct(product);
+		purchase.setQuantity(quantity);
+		purchase.setUnitPrice(unitPrice);
+		purchase.setReference("PO-" + System.nanoTime());
+		assertEquals(200, purchaseController.createPurchase(purchase, null).getStatusCode().value());
+	}
+}
@@ -13,18 +13,27 @@ const SalesHistory = () => {
 
   const [startDate, setStartDate] = useState('');
   const [endDate, setEndDate] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
-  const fetchSalesHistory = async () => {
-    setLoading(true);
+  // Date range and search are applied by the server; pages arrive newest first
+  const fetchSalesHistory = async (cursor = null) => {
+    cursor ? setLoadingMore(true) : setLoading(true);
     try {
-      const response = await fetch('http://localhost:8080/api/sales');
+      const params = new URLSearchParams({ size: '100' });
+      if (startDate) params.append('from', startDate);
+      if (endDate) params.append('to', endDate);
+      if (searchTerm) params.append('search', searchTerm);
+      if (cursor) params.append('cursor', cursor);
+
+      const response = await fetch(`http://localhost:8080/api/sales/history?${params}`);
       if (response.ok) {
-        const data = await response.json();
-        const sortedData = data.sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt));
-        setSalesHistory(sortedData);
+        const page = await response.json();
+        setSalesHistory(prev => cursor ? [...prev, ...page.sales] : page.sales);
+        setNextCursor(page.nextCursor);
         
-        if(sortedData.length > 0) {
-            const firstDate = new Date(sortedData[0].createdAt).toLocaleDateString('en-GB');
+        if(!cursor && page.sales.length > 0) {
+            const firstDate = new Date(page.sales[0].createdAt).toLocaleDateString('en-GB');
             setExpandedDates({ [firstDate]: true });
         }
       }
@@ -32,23 +41,16 @@ const SalesHistory = () => {
       console.error("Failed to fetch history:", err);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
   useEffect(() => {
-    fetchSalesHistory();
-  }, []);
+    const timer = setTimeout(() => fetchSalesHistory(), 300);
+    return () => clearTimeout(timer);
+  }, [startDate, endDate, searchTerm]);
 
-  const filteredSales = salesHistory.filter(sale => {
-    const refID = (sale.reference || "").toLowerCase();
-    const matchesSearch = refID.includes(searchTerm.toLowerCase());
-    const saleDate = new Date(sale.createdAt).getTime();
-    const start = startDate ? new Date(startDate).getTime() : -Infinity;
-    const end = endDate ? new Date(endDate).getTime() : Infinity;
-    const adjustedEnd = endDate ? end + 86400000 : end;
-    const matchesDate = !sale.createdAt ? true : (saleDate >= start && saleDate <= adjustedEnd);
-    return matchesSearch && matchesDate;
-  });
+  const filteredSales = salesHistory;
 
   const groupedSales = filteredSales.reduce((groups, sale) => {
     const date = new Date(sale.createdAt).toLocaleDateString('en-GB');
@@ -231,6 +233,16 @@ const SalesHistory = () => {
                 )}
               </div>
             ))}
+
+            {nextCursor && (
+              <button
+                onClick={() => fetchSalesHistory(nextCursor)}
+                disabled={loadingMore}
+                className="w-full py-4 bg-white border border-slate-200 rounded-[1.5rem] text-[10px] font-black uppercase tracking-widest text-slate-500 hover:bg-slate-900 hover:text-white hover:border-slate-900 transition-all disabled:opacity-50"
+              >
+                {loadingMore ? 'Loading...' : 'Load Older Sales'}
+              </button>
+            )}
           </div>
         )}
       </div>